@@ -0,0 +1,42 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Arrays;
+
+// Runs the benchmarks selected on the command line (all of them by default) in throughput and
+// average-time mode with the GC profiler, so every run also reports allocation rate.
+// Time units come from each benchmark's @OutputTimeUnit unless -tu is given.
+// "footprint [books]" runs CatalogFootprint instead.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        if (args.length > 0 && args[0].equals("footprint")) {
+            CatalogFootprint.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        if (commandLine.getBenchModes().isEmpty()) {
+            options.mode(Mode.Throughput).mode(Mode.AverageTime);
+        }
+        options.addProfiler(GCProfiler.class)
+                .forks(commandLine.getForkCount().orElse(1))
+                .warmupIterations(commandLine.getWarmupIterations().orElse(3))
+                .warmupTime(commandLine.getWarmupTime().orElse(TimeValue.seconds(2)))
+                .measurementIterations(commandLine.getMeasurementIterations().orElse(5))
+                .measurementTime(commandLine.getMeasurementTime().orElse(TimeValue.seconds(2)));
+        new Runner(options.build()).run();
+    }
+}
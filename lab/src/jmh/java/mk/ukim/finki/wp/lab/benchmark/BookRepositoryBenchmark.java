@@ -0,0 +1,71 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ColumnarBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.InMemoryBookRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookRepositoryBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"concurrent", "list", "columnar"})
+    public String backend;
+
+    private BookRepository repository;
+    private Book template;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Book> books = Catalogs.seed(catalogSize);
+        template = books.get(0);
+        if (backend.equals("list")) {
+            DataHolder.books = new ArrayList<>(books);
+            repository = new InMemoryBookRepositoryImpl();
+        } else if (backend.equals("columnar")) {
+            repository = new ColumnarBookRepositoryImpl(new DataHolder(), false);
+        } else {
+            repository = new ConcurrentBookRepositoryImpl(new DataHolder());
+        }
+    }
+
+    @Benchmark
+    public List<Book> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Book> searchBooks() {
+        return repository.searchBooks("Wind", 4.5);
+    }
+
+    @Benchmark
+    public Object findById() {
+        return repository.findById(ThreadLocalRandom.current().nextLong(catalogSize));
+    }
+
+    // Insert then remove a book that isn't in the catalog, so the size stays constant
+    @Benchmark
+    public void saveAndDeleteById() {
+        long id = catalogSize + ThreadLocalRandom.current().nextLong(1_000_000);
+        repository.save(template.withId(id));
+        repository.deleteById(id);
+    }
+}
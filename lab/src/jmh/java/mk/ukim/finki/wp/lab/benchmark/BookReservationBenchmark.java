@@ -0,0 +1,108 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.JournaledBookReservationRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookInventoryServiceImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookReservationServiceImpl;
+import mk.ukim.finki.wp.lab.service.ingest.ReservationIngestionPipeline;
+import mk.ukim.finki.wp.lab.service.support.ReservationLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// placeReservation end to end: title lookup, inventory CAS, queueing and the batched store.
+// Use -t to try other thread counts than the two fixed variants below.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookReservationBenchmark {
+
+    @Param({"discard", "journal"})
+    public String store;
+
+    private List<Book> books;
+    private Path journalDirectory;
+    private ReservationIngestionPipeline pipeline;
+    private JournaledBookReservationRepositoryImpl journal;
+    private BookReservationServiceImpl reservationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        books = Catalogs.seed(10_000);
+        BookReservationRepository repository;
+        if (store.equals("journal")) {
+            journalDirectory = Files.createTempDirectory("reservation-journal");
+            journal = new JournaledBookReservationRepositoryImpl(journalDirectory, DataSize.ofMegabytes(64), 2);
+            repository = journal;
+        } else {
+            repository = new DiscardingRepository();
+        }
+        pipeline = new ReservationIngestionPipeline(repository, List.of(), 100_000, 256, 1);
+        pipeline.start();
+        ConcurrentBookRepositoryImpl bookRepository = new ConcurrentBookRepositoryImpl(new DataHolder());
+        BookInventoryServiceImpl inventory = new BookInventoryServiceImpl(Long.MAX_VALUE / 2);
+        reservationService = new BookReservationServiceImpl(pipeline, bookRepository, inventory,
+                new ReservationLedger(repository, bookRepository, inventory), 10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pipeline.stop();
+        if (journal != null) {
+            journal.close();
+            FileSystemUtils.deleteRecursively(journalDirectory);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BookReservation placeReservationSingleThread() {
+        return place();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public BookReservation placeReservationAllCores() {
+        return place();
+    }
+
+    private BookReservation place() {
+        Book book = books.get(ThreadLocalRandom.current().nextInt(books.size()));
+        return reservationService.placeReservation(book.getTitle(), "Reader", "Address 1", 1);
+    }
+
+    private static class DiscardingRepository implements BookReservationRepository {
+        @Override
+        public BookReservation save(BookReservation reservation) {
+            return reservation;
+        }
+
+        @Override
+        public List<BookReservation> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public long count() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookInventoryServiceImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookServiceImpl;
+import mk.ukim.finki.wp.lab.service.support.CatalogFacets;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookServiceBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    public int catalogSize;
+
+    private BookServiceImpl bookService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Catalogs.seed(catalogSize);
+        ConcurrentBookRepositoryImpl repository = new ConcurrentBookRepositoryImpl(new DataHolder());
+        bookService = new BookServiceImpl(repository, new CatalogVersion(), new CatalogFacets(repository), new BookInventoryServiceImpl(10));
+    }
+
+    @Benchmark
+    public Book findById() {
+        return bookService.findById(ThreadLocalRandom.current().nextLong(catalogSize));
+    }
+}
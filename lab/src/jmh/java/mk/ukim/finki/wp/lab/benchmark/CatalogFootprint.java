@@ -0,0 +1,60 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ColumnarBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.InMemoryBookRepositoryImpl;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Retained memory per book for each backend, measured as the heap (plus direct buffer) growth
+// after loading a synthetic catalog and collecting garbage. Authors are shared and excluded.
+// Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="footprint [books]"
+public class CatalogFootprint {
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        System.out.printf("%-22s %14s %12s%n", "backend", "bytes", "bytes/book");
+        measure("list", books, InMemoryBookRepositoryImpl::new, false);
+        measure("concurrent", books, () -> new ConcurrentBookRepositoryImpl(new DataHolder()), true);
+        measure("columnar", books, () -> new ColumnarBookRepositoryImpl(new DataHolder(), false), true);
+        measure("columnar (off-heap)", books, () -> new ColumnarBookRepositoryImpl(new DataHolder(), true), true);
+    }
+
+    // copies: whether the backend holds its own copy of the catalog, so DataHolder.books can be dropped
+    private static void measure(String name, int books, Supplier<BookRepository> factory, boolean copies) {
+        DataHolder.authors = Catalogs.authors(1000);
+        DataHolder.books = null;
+        long before = usedMemory();
+        DataHolder.books = Catalogs.books(books, DataHolder.authors);
+        BookRepository repository = factory.get();
+        if (copies) {
+            DataHolder.books = List.of();
+        }
+        long after = usedMemory();
+        Reference.reachabilityFence(repository);
+        if (repository.count() != books) {
+            throw new IllegalStateException(name + " holds " + repository.count() + " books");
+        }
+        System.out.printf("%-22s %14d %12.1f%n", name, after - before, (after - before) / (double) books);
+        DataHolder.books = null;
+    }
+
+    private static long usedMemory() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        long direct = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                direct = pool.getMemoryUsed();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() + direct;
+    }
+}
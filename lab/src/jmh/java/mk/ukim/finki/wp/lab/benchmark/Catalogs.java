@@ -0,0 +1,49 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic synthetic catalogs shared by the benchmarks
+final class Catalogs {
+    static final String[] WORDS = {"Dune", "War", "Peace", "Road", "Kite", "Runner", "Name", "Wind", "Gone", "Girl",
+            "Brave", "New", "World", "Shining", "Moby", "Dick", "Jane", "Eyre", "Night", "Sea"};
+    static final String[] GENRES = {"Science Fiction", "Dystopian", "Horror", "Adventure / Classic", "Historical Fiction",
+            "Post-Apocalyptic", "Romance / Classic", "Fantasy", "Mystery / Thriller", "Drama"};
+
+    private Catalogs() {
+    }
+
+    static List<Author> authors(int count) {
+        List<Author> authors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Author author = new Author("Name" + i, "Surname" + i, "Country", "Biography of author " + i);
+            author.setId((long) i);
+            authors.add(author);
+        }
+        return authors;
+    }
+
+    static List<Book> books(int count, List<Author> authors) {
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            books.add(new Book(title, GENRES[random.nextInt(GENRES.length)], random.nextInt(51) / 10.0,
+                    (long) i, authors.get(random.nextInt(authors.size())), 0L));
+        }
+        return books;
+    }
+
+    // Points DataHolder at a fresh catalog; repositories read it on construction
+    static List<Book> seed(int count) {
+        DataHolder.authors = authors(Math.max(1, Math.min(count, 1000)));
+        DataHolder.books = books(count, DataHolder.authors);
+        DataHolder.reservations = new ArrayList<>();
+        return DataHolder.books;
+    }
+}
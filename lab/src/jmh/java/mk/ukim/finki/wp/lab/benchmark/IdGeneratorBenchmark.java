@@ -0,0 +1,41 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Contended id allocation: one CAS per id versus per-thread blocks of 64
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdGeneratorBenchmark {
+    private final IdGenerator generator = new IdGenerator();
+
+    @State(Scope.Thread)
+    public static class Blocks {
+        LongSupplier ids;
+
+        @Setup
+        public void setUp(IdGeneratorBenchmark benchmark) {
+            ids = benchmark.generator.blocks(64);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long blocks(Blocks blocks) {
+        return blocks.ids.getAsLong();
+    }
+}
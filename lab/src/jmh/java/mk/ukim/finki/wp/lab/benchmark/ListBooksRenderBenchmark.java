@@ -0,0 +1,55 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import mk.ukim.finki.wp.lab.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListBooksRenderBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    public int catalogSize;
+
+    private SpringTemplateEngine templateEngine;
+    private JakartaServletWebApplication application;
+    private List<Book> books;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        application = JakartaServletWebApplication.buildApplication(new MockServletContext());
+        books = Catalogs.seed(catalogSize);
+    }
+
+    @Benchmark
+    public void renderListBooks() {
+        WebContext context = new WebContext(application.buildExchange(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        context.setVariable("books", books);
+        templateEngine.process("listBooks", context, Writer.nullWriter());
+    }
+}
@@ -0,0 +1,91 @@
+package mk.ukim.finki.wp.lab.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import mk.ukim.finki.wp.lab.web.rendering.TemplateRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-request application building and direct engine calls, as the servlets used to render,
+// against the shared TemplateRenderer. Run with -bm sample to compare p99 latency.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRendererBenchmark {
+
+    private MockServletContext servletContext;
+    private SpringTemplateEngine templateEngine;
+    private TemplateRenderer templateRenderer;
+    private Map<String, Object> confirmation;
+    private Map<String, Object> listing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        servletContext = new MockServletContext();
+        templateRenderer = new TemplateRenderer(templateEngine, servletContext, new WebMetrics(new SimpleMeterRegistry()));
+        confirmation = Map.of("readerName", "Ana", "readerAddress", "Skopje", "bookTitle", "Brave New World", "numCopies", 2);
+        List<Book> books = Catalogs.seed(20);
+        listing = Map.of("books", books);
+    }
+
+    @Benchmark
+    public String confirmationPerRequestApplication() throws IOException {
+        return perRequestApplication(TemplateRenderer.RESERVATION_CONFIRMATION, confirmation);
+    }
+
+    @Benchmark
+    public String confirmationRenderer() throws IOException {
+        return rendered(TemplateRenderer.RESERVATION_CONFIRMATION, confirmation);
+    }
+
+    @Benchmark
+    public String listingPerRequestApplication() throws IOException {
+        return perRequestApplication("listBooks", listing);
+    }
+
+    @Benchmark
+    public String listingRenderer() throws IOException {
+        return rendered("listBooks", listing);
+    }
+
+    private String perRequestApplication(String template, Map<String, Object> variables) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebContext context = new WebContext(JakartaServletWebApplication.buildApplication(servletContext).buildExchange(request, response));
+        variables.forEach(context::setVariable);
+        templateEngine.process(template, context, response.getWriter());
+        return response.getContentAsString();
+    }
+
+    private String rendered(String template, Map<String, Object> variables) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        templateRenderer.render(template, variables, request, response);
+        return response.getContentAsString();
+    }
+}
@@ -0,0 +1,80 @@
+package mk.ukim.finki.wp.lab.load;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// The endpoints a load run mixes. Each call returns the final status; redirects are not
+// followed except by SEARCH, which measures the root servlet's redirect plus the result page.
+enum LoadRoute {
+    BOOKS {
+        @Override
+        int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException {
+            return send(client, target.get("/books"));
+        }
+    },
+    SEARCH {
+        @Override
+        int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            HttpResponse<Void> redirect = client.send(target.post("/", Map.of(
+                    "bookTitle", LoadTarget.WORDS[random.nextInt(LoadTarget.WORDS.length)],
+                    "rating", String.valueOf(random.nextInt(46) / 10.0))), HttpResponse.BodyHandlers.discarding());
+            String location = redirect.headers().firstValue("Location").orElse(null);
+            if (redirect.statusCode() != 302 || location == null) {
+                return redirect.statusCode() >= 400 ? redirect.statusCode() : 500;
+            }
+            return send(client, target.get(location));
+        }
+    },
+    RESERVE {
+        @Override
+        int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException {
+            return send(client, target.post("/bookReservation", Map.of(
+                    "chosenBook", target.reservableTitle(),
+                    "readerName", "Load reader",
+                    "readerAddress", "Load street 1",
+                    "numCopies", "1")));
+        }
+    },
+    SAVE {
+        @Override
+        int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return send(client, target.post("/books/save", Map.of(
+                    "title", "Saved " + random.nextLong(Long.MAX_VALUE),
+                    "genre", "Drama",
+                    "averageRating", String.valueOf(random.nextInt(51) / 10.0),
+                    "authorId", String.valueOf(target.authorId()))));
+        }
+    },
+    // Deletes books seeded for this purpose; once they run out it deletes ids that no longer exist
+    DELETE {
+        @Override
+        int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException {
+            return send(client, target.post("/books/delete/" + target.nextVictim(), Map.of()));
+        }
+    };
+
+    abstract int call(LoadTarget target, HttpClient client) throws IOException, InterruptedException;
+
+    String label() {
+        return name().toLowerCase();
+    }
+
+    private static int send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    static String form(Map<String, String> fields) {
+        return fields.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+}
@@ -0,0 +1,60 @@
+package mk.ukim.finki.wp.lab.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The running application and the catalog seeded into it for a load run
+final class LoadTarget {
+    static final String[] WORDS = {"Dune", "War", "Peace", "Road", "Kite", "Runner", "Name", "Wind", "Gone", "Girl",
+            "Brave", "New", "World", "Shining", "Moby", "Dick", "Jane", "Eyre", "Night", "Sea"};
+
+    private final URI base;
+    private final Duration timeout;
+    private final long authorId;
+    private final List<String> reservableTitles;
+    private final long[] victims;
+    private final AtomicInteger nextVictim = new AtomicInteger();
+
+    LoadTarget(URI base, Duration timeout, long authorId, List<String> reservableTitles, long[] victims) {
+        this.base = base;
+        this.timeout = timeout;
+        this.authorId = authorId;
+        this.reservableTitles = reservableTitles;
+        this.victims = victims;
+    }
+
+    long authorId() {
+        return authorId;
+    }
+
+    String reservableTitle() {
+        return reservableTitles.get(ThreadLocalRandom.current().nextInt(reservableTitles.size()));
+    }
+
+    long nextVictim() {
+        int next = nextVictim.getAndIncrement();
+        return next < victims.length ? victims[next] : -1 - next;
+    }
+
+    HttpRequest get(String pathAndQuery) {
+        return request(pathAndQuery).GET().build();
+    }
+
+    HttpRequest post(String path, Map<String, String> fields) {
+        return request(path)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(LoadRoute.form(fields)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(base.resolve(pathAndQuery))
+                .timeout(timeout)
+                .header("Accept-Encoding", "gzip");
+    }
+}
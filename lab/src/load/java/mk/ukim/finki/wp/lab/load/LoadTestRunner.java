@@ -0,0 +1,218 @@
+package mk.ukim.finki.wp.lab.load;
+
+import mk.ukim.finki.wp.lab.LabApplication;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.AuthorRepository;
+import mk.ukim.finki.wp.lab.service.BookInventoryService;
+import mk.ukim.finki.wp.lab.service.CatalogTransferService;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// End-to-end load test: starts the application on a random port, seeds a catalog through the
+// importer, then drives a weighted mix of routes at a fixed arrival rate (open model) from
+// `concurrency` client connections and prints latency percentiles and throughput per route.
+// Latency counts from when each request was due (see LoadWorker); warm-up requests are not recorded.
+// Run with: mvn -Pload test-compile exec:exec -Dload.args="--rate=400 --duration=60s [--lab.repository.books=columnar]"
+// Options: --rate --concurrency --warmup --duration --mix=books:40,search:25,... --books --timeout --hgrm=<dir>;
+// any other --key=value is passed to the application. To compare Tomcat's platform thread pool
+// with a virtual thread per request, run the same options again with --spring.profiles.active=virtual
+// (on JDK 21+; on older JDKs Spring ignores the setting, and the header line says which one ran).
+public class LoadTestRunner {
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "rate", "100",
+            "concurrency", "16",
+            "warmup", "10s",
+            "duration", "30s",
+            "mix", "books:40,search:25,reserve:20,save:10,delete:5",
+            "books", "10000",
+            "timeout", "10s");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String key = arg.startsWith("--") && equals > 2 ? arg.substring(2, equals) : null;
+            if (key != null && (DEFAULTS.containsKey(key) || key.equals("hgrm"))) {
+                options.put(key, arg.substring(equals + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        double rate = Double.parseDouble(options.get("rate"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        Duration timeout = DurationStyle.detectAndParse(options.get("timeout"));
+        LoadRoute[] mix = mix(options.get("mix"));
+        if (rate <= 0 || concurrency <= 0 || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Rate, concurrency and duration must be positive");
+        }
+
+        // System properties outrank application.properties, and application arguments outrank them.
+        // All requests come from one address, so the per-client rate limiter is off unless asked for;
+        // a devtools restart would run this main method again, without the harness options.
+        System.setProperty("server.port", "0");
+        System.setProperty("lab.rate-limit.enabled", "false");
+        System.setProperty("spring.main.banner-mode", "off");
+        System.setProperty("logging.level.root", "warn");
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LabApplication.class)
+                .run(applicationArgs.toArray(String[]::new));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            double deleteShare = share(mix, LoadRoute.DELETE);
+            int victims = (int) (rate * (warmup.toSeconds() + duration.toSeconds()) * deleteShare * 1.2) + 100;
+            LoadTarget target = seed(context, URI.create("http://localhost:" + port), timeout,
+                    Integer.parseInt(options.get("books")), victims);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(timeout)
+                    .build();
+
+            System.out.printf("%.0f req/s from %d connections, %s warm-up + %s measured, mix %s, port %d, %s threads%n",
+                    rate, concurrency, warmup, duration, options.get("mix"), port,
+                    Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform");
+            long interval = (long) (concurrency * 1e9 / rate);
+            long start = System.nanoTime() + 100_000_000L;
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<LoadWorker> workers = new ArrayList<>(concurrency);
+            List<Thread> threads = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                LoadWorker worker = new LoadWorker(target, client, mix, start + interval * i / concurrency, interval,
+                        measureFrom, end, 42L + i);
+                Thread thread = new Thread(worker, "load-" + i);
+                workers.add(worker);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            report(workers, duration, options.get("hgrm"));
+        } finally {
+            context.close();
+        }
+    }
+
+    // Imports the catalog, stocks the titles reservations pick from so they don't sell out, and
+    // adds the books DELETE removes
+    private static LoadTarget seed(ConfigurableApplicationContext context, URI base, Duration timeout,
+                                   int books, int victims) throws IOException {
+        List<Author> authors = context.getBean(AuthorRepository.class).findAll();
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder("id,title,genre,averageRating,authorId\n");
+        long[] ids = new long[books + victims];
+        List<String> reservable = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = IdGenerator.shared().nextId();
+            String title = i < books
+                    ? LoadTarget.WORDS[random.nextInt(LoadTarget.WORDS.length)] + " " + LoadTarget.WORDS[random.nextInt(LoadTarget.WORDS.length)] + " " + i
+                    : "Victim " + i;
+            if (i < Math.min(books, 1000)) {
+                reservable.add(title);
+            }
+            csv.append(ids[i]).append(',').append(title).append(",Drama,").append(random.nextInt(51) / 10.0).append(',')
+                    .append(authors.get(random.nextInt(authors.size())).getId()).append('\n');
+        }
+        byte[] data = csv.toString().getBytes(StandardCharsets.UTF_8);
+        context.getBean(CatalogTransferService.class).importBooks(Channels.newChannel(new ByteArrayInputStream(data)), CatalogFormat.CSV);
+        BookInventoryService inventory = context.getBean(BookInventoryService.class);
+        for (int i = 0; i < reservable.size(); i++) {
+            inventory.stock(ids[i], Long.MAX_VALUE / 4);
+        }
+        long[] victimIds = new long[victims];
+        System.arraycopy(ids, books, victimIds, 0, victims);
+        return new LoadTarget(base, timeout, authors.get(0).getId(), reservable, victimIds);
+    }
+
+    private static void report(List<LoadWorker> workers, Duration duration, String hgrmDirectory) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %13s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "svc p99 ms");
+        Histogram allLatency = new Histogram(3);
+        Histogram allService = new Histogram(3);
+        long allErrors = 0;
+        for (LoadRoute route : LoadRoute.values()) {
+            Histogram latency = new Histogram(3);
+            Histogram service = new Histogram(3);
+            long errors = 0;
+            for (LoadWorker worker : workers) {
+                latency.add(worker.latency[route.ordinal()]);
+                service.add(worker.service[route.ordinal()]);
+                errors += worker.errors[route.ordinal()];
+            }
+            if (latency.getTotalCount() == 0) {
+                continue;
+            }
+            print(route.label(), latency, service, errors, seconds);
+            allLatency.add(latency);
+            allService.add(service);
+            allErrors += errors;
+            if (hgrmDirectory != null) {
+                Files.createDirectories(Path.of(hgrmDirectory));
+                try (PrintStream out = new PrintStream(Files.newOutputStream(Path.of(hgrmDirectory, route.label() + ".hgrm")))) {
+                    latency.outputPercentileDistribution(out, 1e6);
+                }
+            }
+        }
+        print("all", allLatency, allService, allErrors, seconds);
+    }
+
+    private static void print(String name, Histogram latency, Histogram service, long errors, double seconds) {
+        System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %13.2f%n", name, latency.getTotalCount(), errors,
+                latency.getTotalCount() / seconds, latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6, latency.getMaxValue() / 1e6, service.getValueAtPercentile(99) / 1e6);
+    }
+
+    // "books:40,search:25" -> a table with each route repeated by its weight, picked from uniformly
+    private static LoadRoute[] mix(String spec) {
+        List<LoadRoute> table = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split(":");
+            LoadRoute route = LoadRoute.valueOf(entry[0].trim().toUpperCase());
+            int weight = entry.length > 1 ? Integer.parseInt(entry[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                table.add(route);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Empty route mix");
+        }
+        return table.toArray(LoadRoute[]::new);
+    }
+
+    private static double share(LoadRoute[] mix, LoadRoute route) {
+        int count = 0;
+        for (LoadRoute r : mix) {
+            if (r == route) {
+                count++;
+            }
+        }
+        return count / (double) mix.length;
+    }
+}
@@ -0,0 +1,69 @@
+package mk.ukim.finki.wp.lab.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// One client connection's share of the arrival schedule. Request k is due at first + k * interval
+// whether or not the previous one has returned, and its latency is measured from that due time,
+// so a stalled server shows up as queueing delay instead of fewer, faster samples (coordinated
+// omission). Service time, measured from when the request was actually sent, is kept separately.
+final class LoadWorker implements Runnable {
+    private final LoadTarget target;
+    private final HttpClient client;
+    private final LoadRoute[] mix;
+    private final long first;
+    private final long interval;
+    private final long measureFrom;
+    private final long end;
+    private final SplittableRandom random;
+    final Histogram[] latency = new Histogram[LoadRoute.values().length];
+    final Histogram[] service = new Histogram[LoadRoute.values().length];
+    final long[] errors = new long[LoadRoute.values().length];
+
+    LoadWorker(LoadTarget target, HttpClient client, LoadRoute[] mix, long first, long interval, long measureFrom, long end, long seed) {
+        this.target = target;
+        this.client = client;
+        this.mix = mix;
+        this.first = first;
+        this.interval = interval;
+        this.measureFrom = measureFrom;
+        this.end = end;
+        this.random = new SplittableRandom(seed);
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new Histogram(3);
+            service[i] = new Histogram(3);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (long due = first; due < end; due += interval) {
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRoute route = mix[random.nextInt(mix.length)];
+            long sent = System.nanoTime();
+            boolean ok;
+            try {
+                ok = route.call(target, client) < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long done = System.nanoTime();
+            if (due >= measureFrom) {
+                latency[route.ordinal()].recordValue(done - due);
+                service[route.ordinal()].recordValue(done - sent);
+                if (!ok) {
+                    errors[route.ordinal()]++;
+                }
+            }
+        }
+    }
+}
@@ -3,8 +3,10 @@ package mk.ukim.finki.wp.lab;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.ServletComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @ServletComponentScan
+@EnableScheduling
 @SpringBootApplication
 public class LabApplication {
 
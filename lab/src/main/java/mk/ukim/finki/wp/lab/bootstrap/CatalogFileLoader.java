@@ -0,0 +1,37 @@
+package mk.ukim.finki.wp.lab.bootstrap;
+
+import mk.ukim.finki.wp.lab.service.CatalogTransferService;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Loads lab.catalog.import-file on top of the DataHolder seed; the format follows the extension
+@Component
+@ConditionalOnProperty(name = "lab.catalog.import-file")
+public class CatalogFileLoader implements ApplicationRunner {
+    private final CatalogTransferService catalogTransferService;
+    private final Path file;
+
+    public CatalogFileLoader(CatalogTransferService catalogTransferService,
+                             @Value("${lab.catalog.import-file}") Path file) {
+        this.catalogTransferService = catalogTransferService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        String name = file.getFileName().toString();
+        CatalogFormat format = CatalogFormat.from(name.substring(name.lastIndexOf('.') + 1));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            catalogTransferService.importBooks(channel, format);
+        }
+    }
+}
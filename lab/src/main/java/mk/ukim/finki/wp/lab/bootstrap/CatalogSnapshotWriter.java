@@ -0,0 +1,60 @@
+package mk.ukim.finki.wp.lab.bootstrap;
+
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.lab.repository.AuthorRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ColumnarBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.support.BookColumns;
+import mk.ukim.finki.wp.lab.repository.support.CatalogSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+// Writes a CatalogSnapshot every lab.snapshot.interval-ms if the catalog changed since the last
+// one, and once more on shutdown; DataHolder restores the newest one on the next start
+@Component
+@ConditionalOnProperty(name = "lab.snapshot.enabled", havingValue = "true")
+@ConditionalOnProperty(name = "lab.repository.books", havingValue = "columnar")
+public class CatalogSnapshotWriter {
+    private final ColumnarBookRepositoryImpl bookRepository;
+    private final AuthorRepository authorRepository;
+    private final Path directory;
+    private final int retain;
+    private long sequence;
+    private long writtenModifications;
+
+    public CatalogSnapshotWriter(ColumnarBookRepositoryImpl bookRepository, AuthorRepository authorRepository,
+                                 @Value("${lab.snapshot.directory:data/snapshots}") Path directory,
+                                 @Value("${lab.snapshot.retain:2}") int retain) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.directory = directory;
+        this.retain = Math.max(1, retain);
+        this.sequence = CatalogSnapshot.latestSequence(directory);
+        // A catalog seeded from code has never been written; a restored one is already on disk
+        this.writtenModifications = DataHolder.snapshot != null ? bookRepository.modifications() : -1;
+    }
+
+    @Scheduled(initialDelayString = "${lab.snapshot.interval-ms:300000}", fixedDelayString = "${lab.snapshot.interval-ms:300000}")
+    public synchronized void writeIfChanged() {
+        if (bookRepository.modifications() != writtenModifications) {
+            write();
+        }
+    }
+
+    public synchronized Path write() {
+        long modifications = bookRepository.modifications();
+        BookColumns image = bookRepository.copyInIdOrder();
+        Path file = CatalogSnapshot.write(directory, ++sequence, authorRepository.findAll(), image);
+        writtenModifications = modifications;
+        CatalogSnapshot.prune(directory, retain);
+        return file;
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        writeIfChanged();
+    }
+}
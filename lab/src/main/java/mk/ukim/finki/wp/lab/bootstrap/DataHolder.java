@@ -4,10 +4,15 @@ import jakarta.annotation.PostConstruct;
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
 import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.support.CatalogSnapshot;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
 public class DataHolder {
@@ -16,15 +21,33 @@ public class DataHolder {
 
     public static List<Author>authors=null;
 
+    // Newest catalog snapshot when one was restored instead of the catalog below; the columnar
+    // repository serves its books straight from it, so books stays empty
+    public static CatalogSnapshot snapshot=null;
+
+    @Value("#{${lab.snapshot.enabled:false} and '${lab.repository.books:concurrent}' == 'columnar'}")
+    private boolean restoreSnapshot;
+
+    @Value("${lab.snapshot.directory:data/snapshots}")
+    private Path snapshotDirectory;
+
     @PostConstruct
     public void init(){
+        snapshot = restoreSnapshot ? CatalogSnapshot.openLatest(snapshotDirectory).orElse(null) : null;
+        if (snapshot != null) {
+            authors = new ArrayList<>(snapshot.authors());
+            authors.forEach(a -> IdGenerator.shared().advancePast(a.getId()));
+            books = new CopyOnWriteArrayList<>();
+            reservations = new ArrayList<>();
+            return;
+        }
 
         authors=new ArrayList<>();
         authors.add(new Author("George","Orwell","British","1903-06-25"));
         authors.add(new Author("Aldous","Huxley","British","1894-07-26"));
         authors.add(new Author("Stephen","King","American","1947-09-21"));
 
-        books = new ArrayList<>();
+        books = new CopyOnWriteArrayList<>();
         books.add(new Book("Dune", "Science Fiction", 4.6,authors.get(0)));
         books.add(new Book("Brave New World", "Dystopian", 4.5,authors.get(1)));
         books.add(new Book("The Shining", "Horror", 4.7,authors.get(2)));
@@ -0,0 +1,50 @@
+package mk.ukim.finki.wp.lab.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.service.ingest.ReservationIngestionPipeline;
+import mk.ukim.finki.wp.lab.web.cache.RenderedPageCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed work on the controllers and *ServiceImpl classes
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder catalogMetrics(BookRepository bookRepository,
+                                      BookReservationRepository bookReservationRepository,
+                                      ReservationIngestionPipeline reservationIngestionPipeline,
+                                      RenderedPageCache renderedPageCache) {
+        return registry -> {
+            Gauge.builder("lab.catalog.books", bookRepository, BookRepository::count)
+                    .description("Books in the catalog")
+                    .register(registry);
+            Gauge.builder("lab.reservations.stored", bookReservationRepository, BookReservationRepository::count)
+                    .description("Reservations stored so far")
+                    .register(registry);
+            Gauge.builder("lab.reservations.queued", reservationIngestionPipeline, ReservationIngestionPipeline::queued)
+                    .description("Reservations waiting in the ingestion queue")
+                    .register(registry);
+            FunctionCounter.builder("lab.page.cache", renderedPageCache, RenderedPageCache::hits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("lab.page.cache", renderedPageCache, RenderedPageCache::misses)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("lab.page.cache", renderedPageCache, RenderedPageCache::notModified)
+                    .tag("result", "not_modified")
+                    .register(registry);
+        };
+    }
+}
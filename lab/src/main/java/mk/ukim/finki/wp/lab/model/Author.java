@@ -3,6 +3,7 @@ package mk.ukim.finki.wp.lab.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
 
 @Data
 public class Author {
@@ -13,7 +14,7 @@ public class Author {
     private String biography;
 
     public Author(String name, String surname, String country, String biography) {
-        this.id = (long) (Math.random()*1000);
+        this.id = IdGenerator.shared().nextId();
         this.name = name;
         this.surname = surname;
         this.country = country;
@@ -1,27 +1,29 @@
 package mk.ukim.finki.wp.lab.model;
 
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
+import lombok.With;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
 
-@Data
+// Immutable book version. Edits produce a new instance via the with* methods and are
+// stored with compare-and-set on the version, so readers never see a half-updated book.
+@Value
+@With
 @AllArgsConstructor
 public class Book {
     String title;
     String genre;
     double averageRating;
-    private Long id;
-    private Author author;
+    Long id;
+    Author author;
+    long version;
 
     public Book(String title, String genre, double averageRating,Author author) {
-        this.id = (long) (Math.random()*1000);
-        this.title = title;
-        this.genre = genre;
-        this.averageRating = averageRating;
-        this.author = author;
+        this(title, genre, averageRating, IdGenerator.shared().nextId(), author, 0L);
     }
 
 
     public Book( ) {
-
+        this(null, null, 0, null, null, 0L);
     }
 }
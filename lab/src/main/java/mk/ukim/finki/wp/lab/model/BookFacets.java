@@ -0,0 +1,29 @@
+package mk.ukim.finki.wp.lab.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// Book counts per genre and per author id (largest first) and per rating band, where band i
+// covers ratings from i * RATING_BAND_WIDTH up to the next band (the last band includes 5.0)
+@Data
+@AllArgsConstructor
+public class BookFacets {
+    public static final double RATING_BAND_WIDTH = 0.5;
+    public static final int RATING_BANDS = 10;
+
+    private long total;
+    private Map<String, Long> genres;
+    private Map<Long, Long> authors;
+    private long[] ratingBands;
+
+    public static int ratingBand(double rating) {
+        int band = (int) Math.floor(rating / RATING_BAND_WIDTH);
+        return Math.max(0, Math.min(RATING_BANDS - 1, band));
+    }
+
+    public String ratingBandLabel(int band) {
+        return band * RATING_BAND_WIDTH + "-" + (band + 1) * RATING_BAND_WIDTH;
+    }
+}
@@ -0,0 +1,18 @@
+package mk.ukim.finki.wp.lab.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookPage {
+    private List<Book> books;
+    private Long nextCursor;
+    private int size;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 
+// A negative numberOfCopies records copies returned by the reader
 @Data
 @AllArgsConstructor
 public class BookReservation implements Serializable {
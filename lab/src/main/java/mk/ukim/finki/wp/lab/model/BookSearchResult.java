@@ -0,0 +1,17 @@
+package mk.ukim.finki.wp.lab.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookSearchResult {
+    private BookPage page;
+    private BookFacets facets;
+
+    public List<Book> getBooks() {
+        return page.getBooks();
+    }
+}
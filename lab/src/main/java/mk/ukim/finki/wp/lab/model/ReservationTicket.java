@@ -0,0 +1,28 @@
+package mk.ukim.finki.wp.lab.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+// Handle for a reservation accepted for asynchronous processing; PENDING until it is stored
+// (CONFIRMED) or fails (REJECTED, with the reason in error). The id is a random UUID: it is
+// the only thing guarding the reader's details, so it must not be guessable from other tickets.
+@Value
+@With
+@AllArgsConstructor
+public class ReservationTicket {
+    public enum Status {
+        PENDING, CONFIRMED, REJECTED
+    }
+
+    String id;
+    Status status;
+    String bookTitle;
+    String readerName;
+    long numberOfCopies;
+    String error;
+
+    public boolean isDone() {
+        return status != Status.PENDING;
+    }
+}
@@ -0,0 +1,11 @@
+package mk.ukim.finki.wp.lab.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookVersionConflictException extends RuntimeException {
+    public BookVersionConflictException(Long id) {
+        super(String.format("Book with id %d was modified by someone else", id));
+    }
+}
@@ -0,0 +1,11 @@
+package mk.ukim.finki.wp.lab.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ReservationQueueFullException extends RuntimeException {
+    public ReservationQueueFullException() {
+        super("Too many reservations are waiting to be stored, please try again shortly");
+    }
+}
@@ -0,0 +1,13 @@
+package mk.ukim.finki.wp.lab.model.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The reservation wasn't stored within the wait timeout. If it was still queued it has been withdrawn
+// and not made; if the store had already started it may still go through, which the message says.
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ReservationTimeoutException extends RuntimeException {
+    public ReservationTimeoutException(String message) {
+        super(message);
+    }
+}
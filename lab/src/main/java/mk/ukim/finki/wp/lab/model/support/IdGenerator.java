@@ -0,0 +1,76 @@
+package mk.ukim.finki.wp.lab.model.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Monotonic ids: seconds since 2024-01-01 in the high bits, a sequence in the low 21. Ids stay
+// below 2^53 for over a century, so JSON clients that parse numbers as doubles keep them exact.
+// Allocation is a single CAS on the last issued id. When a second's sequence runs out the
+// id simply moves into the next second, and a clock that steps back is ignored, so ids
+// never repeat or decrease. Ids loaded from storage are fed to advancePast, which keeps new
+// ids above everything seen so far even across restarts with a skewed clock.
+public class IdGenerator {
+    static final int SEQUENCE_BITS = 21;
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final IdGenerator SHARED = new IdGenerator();
+
+    private final AtomicLong last = new AtomicLong();
+    private final LongSupplier clock;
+
+    public IdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    IdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Generator the model classes draw their ids from
+    public static IdGenerator shared() {
+        return SHARED;
+    }
+
+    public long nextId() {
+        return allocate(1);
+    }
+
+    // Reserves count consecutive ids and returns the first one
+    public long allocate(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        long floor = ((clock.getAsLong() - EPOCH_MILLIS) / 1000) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long first = Math.max(previous + 1, floor);
+            if (last.compareAndSet(previous, first + count - 1)) {
+                return first;
+            }
+        }
+    }
+
+    // Ids handed out in blocks of blockSize; the supplier itself is for one thread only
+    public LongSupplier blocks(int blockSize) {
+        return new LongSupplier() {
+            private long next;
+            private long end;
+
+            @Override
+            public long getAsLong() {
+                if (next == end) {
+                    next = allocate(blockSize);
+                    end = next + blockSize;
+                }
+                return next++;
+            }
+        };
+    }
+
+    public void advancePast(long id) {
+        long previous = last.get();
+        while (previous < id && !last.compareAndSet(previous, id)) {
+            previous = last.get();
+        }
+    }
+}
@@ -1,14 +1,42 @@
 package mk.ukim.finki.wp.lab.repository;
 
+import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookRepository {
     List<Book> findAll();
     List<Book> searchBooks(String text, Double rating);
 
+    // Up to limit books ordered by id, starting after the given id (null for the first page)
+    List<Book> findPage(Long afterId, int limit);
+
+    Optional<Book> findById(Long id);
+
+    // Same paging as findPage, restricted to one author's books
+    List<Book> findPageByAuthor(Long authorId, Long afterId, int limit);
+
+    // Distinct authors that have at least one book
+    List<Author> findAuthors();
+
+    long count();
+
+    Optional<Book> findByTitle(String title);
+
     void deleteById(Long id);
 
     void save(Book book);
+
+    // Same as save for every book; safe to call from several threads at once
+    void saveAll(List<Book> books);
+
+    // Every book, produced lazily without copying the catalog (id order where the backend keeps one)
+    Stream<Book> stream();
+
+    // Stores book as the next version if book.getVersion() is still the current one,
+    // otherwise throws BookVersionConflictException
+    Book update(Book book);
 }
@@ -2,6 +2,17 @@ package mk.ukim.finki.wp.lab.repository;
 
 import mk.ukim.finki.wp.lab.model.BookReservation;
 
+import java.util.List;
+
 public interface BookReservationRepository {
     BookReservation save(BookReservation reservation);
+
+    default List<BookReservation> saveAll(List<BookReservation> reservations) {
+        reservations.forEach(this::save);
+        return reservations;
+    }
+
+    List<BookReservation> findAll();
+
+    long count();
 }
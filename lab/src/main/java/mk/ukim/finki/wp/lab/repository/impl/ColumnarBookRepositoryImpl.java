@@ -0,0 +1,246 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.support.BookColumns;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Catalog kept in BookColumns instead of one object per book, for catalogs too large to hold
+// as Book instances. Every read materializes fresh Book values for just the rows it returns;
+// searches are a sequential scan over the rating column and the title arena.
+@Repository
+@ConditionalOnProperty(name = "lab.repository.books", havingValue = "columnar")
+public class ColumnarBookRepositoryImpl implements BookRepository {
+    private final BookColumns columns;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long modifications;
+
+    public ColumnarBookRepositoryImpl(DataHolder dataHolder, @Value("${lab.columnar.off-heap:false}") boolean offHeap) {
+        // DataHolder is injected only so its @PostConstruct has seeded (or restored) the catalog by now
+        if (DataHolder.snapshot != null) {
+            this.columns = DataHolder.snapshot.columns(offHeap);
+            long[] ids = columns.orderedIds();
+            if (ids.length > 0) {
+                IdGenerator.shared().advancePast(ids[ids.length - 1]);
+            }
+        } else {
+            this.columns = new BookColumns(offHeap);
+            saveAll(DataHolder.books);
+        }
+    }
+
+    // Number of writes so far; a snapshot taken at one value is current until it changes
+    public long modifications() {
+        return modifications;
+    }
+
+    // Copies the catalog for a snapshot; writers wait only for the copy, not for the file
+    public BookColumns copyInIdOrder() {
+        lock.readLock().lock();
+        try {
+            return columns.copyInIdOrder();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> findAll() {
+        lock.readLock().lock();
+        try {
+            int[] rows = columns.orderedRows();
+            List<Book> result = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                result.add(columns.book(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> searchBooks(String text, Double rating) {
+        byte[] needle = BookColumns.utf8(text);
+        List<Book> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            columns.scan(needle, rating, row -> result.add(columns.book(row)));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public List<Book> findPage(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] rows = columns.orderedRows();
+            int from = columns.positionAfter(rows, afterId);
+            int to = (int) Math.min(rows.length, (long) from + limit);
+            List<Book> page = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                page.add(columns.book(rows[i]));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int row = columns.rowOf(id);
+            return row < 0 ? Optional.empty() : Optional.of(columns.book(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Book> findPageByAuthor(Long authorId, Long afterId, int limit) {
+        List<Book> page = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int code = columns.authorCodeOf(authorId);
+            if (code < 0) {
+                return page;
+            }
+            int[] rows = columns.orderedRows();
+            for (int i = columns.positionAfter(rows, afterId); i < rows.length && page.size() < limit; i++) {
+                if (columns.authorCode(rows[i]) == code) {
+                    page.add(columns.book(rows[i]));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Author> findAuthors() {
+        lock.readLock().lock();
+        try {
+            return columns.authorsWithBooks();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return columns.liveRows();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Book> findByTitle(String title) {
+        if (title == null) {
+            return Optional.empty();
+        }
+        byte[] bytes = BookColumns.utf8(title);
+        lock.readLock().lock();
+        try {
+            int row = columns.findTitle(bytes);
+            return row < 0 ? Optional.empty() : Optional.of(columns.book(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            columns.remove(id);
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(Book book) {
+        IdGenerator.shared().advancePast(book.getId());
+        lock.writeLock().lock();
+        try {
+            columns.put(book);
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(List<Book> books) {
+        books.stream().mapToLong(Book::getId).max().ifPresent(IdGenerator.shared()::advancePast);
+        lock.writeLock().lock();
+        try {
+            books.forEach(columns::put);
+            modifications++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Snapshots the ids only; each book is read when the stream reaches it and skipped if deleted by then
+    @Override
+    public Stream<Book> stream() {
+        long[] ids;
+        lock.readLock().lock();
+        try {
+            ids = columns.orderedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Arrays.stream(ids).mapToObj(id -> findById(id).orElse(null)).filter(Objects::nonNull);
+    }
+
+    @Override
+    public Book update(Book book) {
+        lock.writeLock().lock();
+        try {
+            int row = book.getId() == null ? -1 : columns.rowOf(book.getId());
+            if (row < 0) {
+                throw new IllegalArgumentException("Book with given id not found");
+            }
+            if (columns.version(row) != book.getVersion()) {
+                throw new BookVersionConflictException(book.getId());
+            }
+            Book next = book.withVersion(book.getVersion() + 1);
+            columns.put(next);
+            modifications++;
+            return next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
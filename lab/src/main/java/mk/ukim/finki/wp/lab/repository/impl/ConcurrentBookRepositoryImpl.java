@@ -0,0 +1,243 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.support.AuthorBookIndex;
+import mk.ukim.finki.wp.lab.repository.support.BookSearchIndex;
+import mk.ukim.finki.wp.lab.repository.support.ConcurrentLongMap;
+import mk.ukim.finki.wp.lab.repository.support.OrderedCatalog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Reads are lock-free. Writes update the book map and three indexes in separate steps, so
+// writes to the same id are serialized on a lock stripe to keep them from interleaving.
+// Id-ordered reads (findAll, findPage, stream) walk an immutable OrderedCatalog that every write
+// replaces with a compare-and-set, so each one sees the whole catalog as of a single write and
+// never waits for writers. Searches and author pages see each book at one version only.
+@Repository
+@ConditionalOnProperty(name = "lab.repository.books", havingValue = "concurrent", matchIfMissing = true)
+public class ConcurrentBookRepositoryImpl implements BookRepository {
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentLongMap<Book> books = new ConcurrentLongMap<>();
+    private final BookSearchIndex searchIndex = new BookSearchIndex();
+    private final AuthorBookIndex authorIndex = new AuthorBookIndex();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicReference<OrderedCatalog> catalog = new AtomicReference<>(OrderedCatalog.EMPTY);
+
+    public ConcurrentBookRepositoryImpl(DataHolder dataHolder) {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        // DataHolder is injected only so its @PostConstruct has seeded the catalog by now
+        saveAll(DataHolder.books);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return catalog.get().toList();
+    }
+
+    @Override
+    public List<Book> searchBooks(String text, Double rating) {
+        List<Book> result = new ArrayList<>();
+        searchIndex.candidates(text, rating, id -> {
+            Book b = books.get(id);
+            if (b != null && b.getTitle().contains(text) && b.getAverageRating() >= rating) {
+                result.add(b);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Book> findPage(Long afterId, int limit) {
+        return catalog.get().page(afterId, limit);
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(books.get(id));
+    }
+
+    @Override
+    public List<Book> findPageByAuthor(Long authorId, Long afterId, int limit) {
+        List<Book> page = new ArrayList<>();
+        for (Long id : authorIndex.bookIds(authorId, afterId, limit)) {
+            Book b = books.get(id);
+            if (b != null) {
+                page.add(b);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<Author> findAuthors() {
+        return authorIndex.authors();
+    }
+
+    @Override
+    public long count() {
+        return books.size();
+    }
+
+    @Override
+    public Optional<Book> findByTitle(String title) {
+        if (title == null) {
+            return Optional.empty();
+        }
+        List<Book> matches = new ArrayList<>(1);
+        searchIndex.candidates(title, Double.NEGATIVE_INFINITY, id -> {
+            Book b = books.get(id);
+            if (matches.isEmpty() && b != null && b.getTitle().equals(title)) {
+                matches.add(b);
+            }
+        });
+        return matches.stream().findFirst();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) {
+            return;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Book removed = books.remove(id);
+            searchIndex.remove(id);
+            catalog.updateAndGet(c -> c.without(id));
+            if (removed != null) {
+                authorIndex.remove(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void save(Book book) {
+        IdGenerator.shared().advancePast(book.getId());
+        ReentrantLock lock = lockFor(book.getId());
+        lock.lock();
+        try {
+            index(book);
+            catalog.updateAndGet(c -> c.with(book));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Indexes each book under its own stripe, then publishes the batch to the ordered catalog in
+    // one step, so the chunk table is copied once per batch rather than once per book. The publish
+    // holds the batch's stripes and takes each book from the map, so a save or delete of the same
+    // id that slipped in between is never overwritten with the batch's older copy.
+    @Override
+    public void saveAll(List<Book> books) {
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (Book book : books) {
+            IdGenerator.shared().advancePast(book.getId());
+            ReentrantLock lock = lockFor(book.getId());
+            lock.lock();
+            try {
+                index(book);
+            } finally {
+                lock.unlock();
+            }
+            stripes[stripe(book.getId())] = true;
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            if (stripes[i]) {
+                locks[i].lock();
+            }
+        }
+        try {
+            List<Book> current = new ArrayList<>(books.size());
+            for (Book book : books) {
+                Book stored = this.books.get(book.getId());
+                if (stored != null) {
+                    current.add(stored);
+                }
+            }
+            catalog.updateAndGet(c -> c.withAll(current));
+        } finally {
+            for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+                if (stripes[i]) {
+                    locks[i].unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return catalog.get().stream();
+    }
+
+    @Override
+    public Book update(Book book) {
+        Book current = findById(book.getId()).orElseThrow(() -> new IllegalArgumentException("Book with given id not found"));
+        if (current.getVersion() != book.getVersion()) {
+            throw new BookVersionConflictException(book.getId());
+        }
+        Book next = book.withVersion(current.getVersion() + 1);
+        ReentrantLock lock = lockFor(next.getId());
+        lock.lock();
+        try {
+            if (!books.replace(next.getId(), current, next)) {
+                throw new BookVersionConflictException(book.getId());
+            }
+            searchIndex.index(next);
+            catalog.updateAndGet(c -> c.with(next));
+            if (!Objects.equals(authorIdOf(current), authorIdOf(next))) {
+                authorIndex.remove(current);
+                authorIndex.add(next);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return next;
+    }
+
+    // The map and index part of a save; the caller holds the book's stripe
+    private void index(Book book) {
+        Book previous = books.put(book.getId(), book);
+        if (previous != null && previous.getVersion() > book.getVersion()) {
+            // A replacement that restarts versioning would otherwise be ignored by the index
+            searchIndex.remove(book.getId());
+        }
+        searchIndex.index(book);
+        if (previous != null && !Objects.equals(authorIdOf(previous), authorIdOf(book))) {
+            authorIndex.remove(previous);
+        }
+        authorIndex.add(book);
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[stripe(id)];
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (LOCK_STRIPES - 1);
+    }
+
+    private static Long authorIdOf(Book book) {
+        return book.getAuthor() == null ? null : book.getAuthor().getId();
+    }
+}
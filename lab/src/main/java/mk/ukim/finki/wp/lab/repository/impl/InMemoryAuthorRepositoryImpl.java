@@ -3,14 +3,33 @@ package mk.ukim.finki.wp.lab.repository.impl;
 import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.repository.AuthorRepository;
+import mk.ukim.finki.wp.lab.repository.support.ConcurrentLongMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
+@ConditionalOnProperty(name = "lab.repository.authors", havingValue = "memory", matchIfMissing = true)
 public class InMemoryAuthorRepositoryImpl implements AuthorRepository {
+    private final ConcurrentLongMap<Author> authorsById = new ConcurrentLongMap<>();
+
+    public InMemoryAuthorRepositoryImpl(DataHolder dataHolder) {
+        // DataHolder is injected only so its @PostConstruct has seeded the authors by now
+        DataHolder.authors.forEach(a -> authorsById.put(a.getId(), a));
+    }
+
     @Override
     public List<Author> findAll() {
         return DataHolder.authors;
     }
+
+    @Override
+    public Optional<Author> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(authorsById.get(id));
+    }
 }
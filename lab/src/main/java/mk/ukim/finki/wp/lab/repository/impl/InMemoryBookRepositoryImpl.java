@@ -1,14 +1,28 @@
 package mk.ukim.finki.wp.lab.repository.impl;
 
 import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
 import mk.ukim.finki.wp.lab.repository.BookRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
+// DataHolder.books is a CopyOnWriteArrayList, so reads iterate a stable array without locking.
+// Writes are serialized on one lock and replace a book in place, so no reader sees it missing.
 @Repository
+@ConditionalOnProperty(name = "lab.repository.books", havingValue = "list")
 public class InMemoryBookRepositoryImpl implements BookRepository {
+    private final ReentrantLock writeLock = new ReentrantLock();
 
     @Override
     public List<Book> findAll() {
@@ -20,14 +34,103 @@ public class InMemoryBookRepositoryImpl implements BookRepository {
         return DataHolder.books.stream().filter(b->b.getTitle().contains(text)&&b.getAverageRating()>=rating).toList();
     }
 
+    @Override
+    public List<Book> findPage(Long afterId, int limit) {
+        return DataHolder.books.stream()
+                .filter(b->afterId==null||b.getId()>afterId)
+                .sorted(Comparator.comparing(Book::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        return DataHolder.books.stream().filter(b->b.getId().equals(id)).findFirst();
+    }
+
+    @Override
+    public List<Book> findPageByAuthor(Long authorId, Long afterId, int limit) {
+        return DataHolder.books.stream()
+                .filter(b->b.getAuthor()!=null&&b.getAuthor().getId().equals(authorId))
+                .filter(b->afterId==null||b.getId()>afterId)
+                .sorted(Comparator.comparing(Book::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<Author> findAuthors() {
+        return DataHolder.books.stream().map(Book::getAuthor).filter(a->a!=null).distinct().toList();
+    }
+
+    @Override
+    public long count() {
+        return DataHolder.books.size();
+    }
+
+    @Override
+    public Optional<Book> findByTitle(String title) {
+        return DataHolder.books.stream().filter(b->b.getTitle().equals(title)).findFirst();
+    }
+
     @Override
     public void deleteById(Long id) {
-        DataHolder.books.removeIf(b->b.getId().equals(id));
+        writeLock.lock();
+        try {
+            DataHolder.books.removeIf(b->b.getId().equals(id));
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     @Override
     public void save(Book book) {
-        DataHolder.books.removeIf(b->b.getId().equals(book.getId()));
-        DataHolder.books.add(book);
+        saveAll(List.of(book));
+    }
+
+    // One copy of the array to replace the books already stored and one to append the rest
+    @Override
+    public void saveAll(List<Book> books) {
+        Map<Long, Book> pending = new LinkedHashMap<>();
+        books.forEach(b->{
+            pending.put(b.getId(), b);
+            IdGenerator.shared().advancePast(b.getId());
+        });
+        writeLock.lock();
+        try {
+            DataHolder.books.replaceAll(b->{
+                Book replacement = pending.remove(b.getId());
+                return replacement != null ? replacement : b;
+            });
+            DataHolder.books.addAll(pending.values());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return DataHolder.books.stream();
+    }
+
+    @Override
+    public Book update(Book book) {
+        writeLock.lock();
+        try {
+            for (int i = 0; i < DataHolder.books.size(); i++) {
+                Book current = DataHolder.books.get(i);
+                if (current.getId().equals(book.getId())) {
+                    if (current.getVersion() != book.getVersion()) {
+                        throw new BookVersionConflictException(book.getId());
+                    }
+                    Book next = book.withVersion(current.getVersion() + 1);
+                    DataHolder.books.set(i, next);
+                    return next;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        throw new IllegalArgumentException("Book with given id not found");
     }
 }
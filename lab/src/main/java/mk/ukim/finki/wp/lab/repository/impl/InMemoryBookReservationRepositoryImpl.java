@@ -3,13 +3,27 @@ package mk.ukim.finki.wp.lab.repository.impl;
 import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
 import mk.ukim.finki.wp.lab.model.BookReservation;
 import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
+@ConditionalOnProperty(name = "lab.repository.reservations", havingValue = "memory", matchIfMissing = true)
 public class InMemoryBookReservationRepositoryImpl implements BookReservationRepository {
     @Override
     public BookReservation save(BookReservation reservation) {
         DataHolder.reservations.add(reservation);
         return reservation;
     }
+
+    @Override
+    public List<BookReservation> findAll() {
+        return DataHolder.reservations;
+    }
+
+    @Override
+    public long count() {
+        return DataHolder.reservations.size();
+    }
 }
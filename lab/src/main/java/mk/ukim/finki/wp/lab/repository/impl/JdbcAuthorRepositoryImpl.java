@@ -0,0 +1,81 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.AuthorRepository;
+import mk.ukim.finki.wp.lab.repository.support.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+// Authors in the author table behind an LRU cache. JdbcBookRepositoryImpl maps the author
+// columns of its joins through here, so a book read from the database shares the cached Author.
+@Repository
+@ConditionalOnProperty(name = "lab.repository.authors", havingValue = "jdbc")
+public class JdbcAuthorRepositoryImpl implements AuthorRepository {
+    static final String COLUMNS = "a.id AS author_id, a.name, a.surname, a.country, a.biography";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LruCache<Long, Author> cache;
+
+    public JdbcAuthorRepositoryImpl(DataHolder dataHolder, JdbcTemplate jdbcTemplate,
+                                    @Value("${lab.jdbc.cache.authors:1000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new LruCache<>(cacheSize);
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM author", Long.class);
+        if (count == null || count == 0) {
+            // DataHolder is injected only so its @PostConstruct has built the seed authors by now
+            jdbcTemplate.batchUpdate("INSERT INTO author (id, name, surname, country, biography) VALUES (?, ?, ?, ?, ?)",
+                    DataHolder.authors, DataHolder.authors.size(), (ps, author) -> {
+                        ps.setLong(1, author.getId());
+                        ps.setString(2, author.getName());
+                        ps.setString(3, author.getSurname());
+                        ps.setString(4, author.getCountry());
+                        ps.setString(5, author.getBiography());
+                    });
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM author", Long.class);
+        if (maxId != null) {
+            IdGenerator.shared().advancePast(maxId);
+        }
+    }
+
+    @Override
+    public List<Author> findAll() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM author a ORDER BY a.id", (rs, row) -> author(rs));
+    }
+
+    @Override
+    public Optional<Author> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.computeIfAbsent(id, key -> jdbcTemplate
+                .query("SELECT " + COLUMNS + " FROM author a WHERE a.id = ?", (rs, row) -> author(rs), key)
+                .stream().findFirst().orElse(null)));
+    }
+
+    // Maps the COLUMNS of the current row, reusing the cached instance for a known id.
+    // Null when the row has no author (a left join without a match).
+    Author author(ResultSet rs) throws SQLException {
+        long id = rs.getLong("author_id");
+        if (rs.wasNull()) {
+            return null;
+        }
+        Author cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Author author = new Author(rs.getString("name"), rs.getString("surname"), rs.getString("country"), rs.getString("biography"));
+        author.setId(id);
+        cache.put(id, author);
+        return author;
+    }
+}
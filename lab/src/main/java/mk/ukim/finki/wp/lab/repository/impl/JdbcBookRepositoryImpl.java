@@ -0,0 +1,211 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.support.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Books in the book table, always read joined with their author in one query. Single-book
+// lookups by id and by title go through LRU caches that every write updates, so reservations
+// (which look books up by title) don't reach the database for hot books. Title search filters
+// on the indexed rating column; a substring match can't use an index, so LIKE runs on what's left.
+@Repository
+@ConditionalOnProperty(name = "lab.repository.books", havingValue = "jdbc")
+public class JdbcBookRepositoryImpl implements BookRepository {
+    private static final String SELECT = "SELECT b.id, b.title, b.genre, b.average_rating, b.version, "
+            + JdbcAuthorRepositoryImpl.COLUMNS + " FROM book b LEFT JOIN author a ON a.id = b.author_id";
+    private static final String MERGE = "MERGE INTO book (id, title, genre, average_rating, author_id, version) "
+            + "KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int STREAM_PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcAuthorRepositoryImpl authorRepository;
+    private final int batchSize;
+    private final LruCache<Long, Book> booksById;
+    private final LruCache<String, Long> idsByTitle;
+    private final RowMapper<Book> bookMapper;
+
+    public JdbcBookRepositoryImpl(DataHolder dataHolder, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  JdbcAuthorRepositoryImpl authorRepository,
+                                  @Value("${lab.jdbc.cache.books:10000}") int cacheSize,
+                                  @Value("${lab.jdbc.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.authorRepository = authorRepository;
+        this.batchSize = batchSize;
+        this.booksById = new LruCache<>(cacheSize);
+        this.idsByTitle = new LruCache<>(cacheSize);
+        this.bookMapper = (rs, row) -> new Book(rs.getString("title"), rs.getString("genre"), rs.getDouble("average_rating"),
+                rs.getLong("id"), authorRepository.author(rs), rs.getLong("version"));
+        if (count() == 0) {
+            // DataHolder is injected only so its @PostConstruct has built the seed catalog by now
+            saveAll(DataHolder.books);
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM book", Long.class);
+        if (maxId != null) {
+            IdGenerator.shared().advancePast(maxId);
+        }
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return jdbcTemplate.query(SELECT + " ORDER BY b.id", bookMapper);
+    }
+
+    @Override
+    public List<Book> searchBooks(String text, Double rating) {
+        return jdbcTemplate.query(SELECT + " WHERE b.average_rating >= ? AND b.title LIKE ? ESCAPE '\\' ORDER BY b.id",
+                bookMapper, rating, "%" + escapeLike(text) + "%");
+    }
+
+    @Override
+    public List<Book> findPage(Long afterId, int limit) {
+        if (afterId == null) {
+            return jdbcTemplate.query(SELECT + " ORDER BY b.id LIMIT ?", bookMapper, limit);
+        }
+        return jdbcTemplate.query(SELECT + " WHERE b.id > ? ORDER BY b.id LIMIT ?", bookMapper, afterId, limit);
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(booksById.computeIfAbsent(id, key ->
+                jdbcTemplate.query(SELECT + " WHERE b.id = ?", bookMapper, key).stream().findFirst().orElse(null)));
+    }
+
+    @Override
+    public List<Book> findPageByAuthor(Long authorId, Long afterId, int limit) {
+        return jdbcTemplate.query(SELECT + " WHERE b.author_id = ? AND b.id > ? ORDER BY b.id LIMIT ?", bookMapper,
+                authorId, afterId == null ? Long.MIN_VALUE : afterId, limit);
+    }
+
+    @Override
+    public List<Author> findAuthors() {
+        return jdbcTemplate.query("SELECT " + JdbcAuthorRepositoryImpl.COLUMNS + " FROM author a "
+                + "WHERE EXISTS (SELECT 1 FROM book b WHERE b.author_id = a.id) ORDER BY a.id",
+                (rs, row) -> authorRepository.author(rs));
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // Cached as title -> id; the book found under that id must still carry the title
+    @Override
+    public Optional<Book> findByTitle(String title) {
+        if (title == null) {
+            return Optional.empty();
+        }
+        Long id = idsByTitle.get(title);
+        if (id != null) {
+            Optional<Book> cached = findById(id).filter(b -> title.equals(b.getTitle()));
+            if (cached.isPresent()) {
+                return cached;
+            }
+            idsByTitle.remove(title);
+        }
+        Optional<Book> book = jdbcTemplate.query(SELECT + " WHERE b.title = ? ORDER BY b.id LIMIT 1", bookMapper, title)
+                .stream().findFirst();
+        // Only the id: caching the row here could overwrite a newer one stored by a concurrent update
+        book.ifPresent(b -> idsByTitle.put(title, b.getId()));
+        return book;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id != null) {
+            jdbcTemplate.update("DELETE FROM book WHERE id = ?", id);
+            booksById.remove(id);
+        }
+    }
+
+    @Override
+    public void save(Book book) {
+        IdGenerator.shared().advancePast(book.getId());
+        jdbcTemplate.update(MERGE, ps -> bind(ps, book));
+        cache(book);
+    }
+
+    // One transaction, sent to the database in JDBC batches of lab.jdbc.batch-size rows
+    @Override
+    public void saveAll(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        books.stream().mapToLong(Book::getId).max().ifPresent(IdGenerator.shared()::advancePast);
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(MERGE, books, batchSize, this::bind));
+        books.forEach(b -> booksById.remove(b.getId()));
+    }
+
+    // Reads one keyset page at a time, so no connection stays open while the stream is consumed
+    @Override
+    public Stream<Book> stream() {
+        return Stream.iterate(findPage(null, STREAM_PAGE_SIZE), page -> !page.isEmpty(),
+                        page -> page.size() < STREAM_PAGE_SIZE ? List.of() : findPage(page.get(page.size() - 1).getId(), STREAM_PAGE_SIZE))
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public Book update(Book book) {
+        int updated = jdbcTemplate.update("UPDATE book SET title = ?, genre = ?, average_rating = ?, author_id = ?, "
+                        + "version = version + 1 WHERE id = ? AND version = ?",
+                book.getTitle(), book.getGenre(), book.getAverageRating(),
+                book.getAuthor() == null ? null : book.getAuthor().getId(), book.getId(), book.getVersion());
+        if (updated == 0) {
+            booksById.remove(book.getId());
+            if (findById(book.getId()).isEmpty()) {
+                throw new IllegalArgumentException("Book with given id not found");
+            }
+            throw new BookVersionConflictException(book.getId());
+        }
+        Book next = book.withVersion(book.getVersion() + 1);
+        cache(next);
+        return next;
+    }
+
+    private void cache(Book book) {
+        booksById.put(book.getId(), book);
+        if (book.getTitle() != null) {
+            idsByTitle.put(book.getTitle(), book.getId());
+        }
+    }
+
+    private void bind(PreparedStatement ps, Book book) throws SQLException {
+        ps.setLong(1, book.getId());
+        ps.setString(2, book.getTitle());
+        ps.setString(3, book.getGenre());
+        ps.setDouble(4, book.getAverageRating());
+        if (book.getAuthor() == null || book.getAuthor().getId() == null) {
+            ps.setNull(5, Types.BIGINT);
+        } else {
+            ps.setLong(5, book.getAuthor().getId());
+        }
+        ps.setLong(6, book.getVersion());
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
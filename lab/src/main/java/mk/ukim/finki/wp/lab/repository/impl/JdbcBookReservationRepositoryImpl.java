@@ -0,0 +1,69 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+// Reservations in the book_reservation table. The ingestion pipeline hands over whole batches,
+// which are written as one JDBC batch in one transaction.
+@Repository
+@ConditionalOnProperty(name = "lab.repository.reservations", havingValue = "jdbc")
+public class JdbcBookReservationRepositoryImpl implements BookReservationRepository {
+    private static final String INSERT = "INSERT INTO book_reservation (book_title, reader_name, reader_address, number_of_copies) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public JdbcBookReservationRepositoryImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public BookReservation save(BookReservation reservation) {
+        jdbcTemplate.update(INSERT, ps -> bind(ps, reservation));
+        return reservation;
+    }
+
+    @Override
+    public List<BookReservation> saveAll(List<BookReservation> reservations) {
+        if (!reservations.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, reservations, reservations.size(), this::bind));
+        }
+        return reservations;
+    }
+
+    @Override
+    public List<BookReservation> findAll() {
+        return jdbcTemplate.query("SELECT book_title, reader_name, reader_address, number_of_copies FROM book_reservation ORDER BY id",
+                (rs, row) -> new BookReservation(rs.getString("book_title"), rs.getString("reader_name"),
+                        rs.getString("reader_address"), rs.getObject("number_of_copies", Long.class)));
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_reservation", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private void bind(PreparedStatement ps, BookReservation reservation) throws SQLException {
+        ps.setString(1, reservation.getBookTitle());
+        ps.setString(2, reservation.getReaderName());
+        ps.setString(3, reservation.getReaderAddress());
+        if (reservation.getNumberOfCopies() == null) {
+            ps.setNull(4, Types.BIGINT);
+        } else {
+            ps.setLong(4, reservation.getNumberOfCopies());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.repository.support.ReservationJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Repository
+@ConditionalOnProperty(name = "lab.repository.reservations", havingValue = "journal")
+public class JournaledBookReservationRepositoryImpl implements BookReservationRepository {
+    private final ReservationJournal journal;
+    private final ConcurrentLinkedQueue<BookReservation> reservations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong count = new AtomicLong();
+
+    public JournaledBookReservationRepositoryImpl(@Value("${lab.journal.directory:data/journal}") Path directory,
+                                                  @Value("${lab.journal.segment-size:64MB}") DataSize segmentSize,
+                                                  @Value("${lab.journal.flush-interval-ms:5}") long flushIntervalMillis) {
+        this.journal = new ReservationJournal(directory, Math.toIntExact(segmentSize.toBytes()), flushIntervalMillis);
+        this.count.set(this.journal.replay(reservations::add));
+    }
+
+    @Override
+    public BookReservation save(BookReservation reservation) {
+        journal.append(reservation);
+        reservations.add(reservation);
+        count.incrementAndGet();
+        return reservation;
+    }
+
+    @Override
+    public List<BookReservation> saveAll(List<BookReservation> batch) {
+        journal.appendAll(batch);
+        reservations.addAll(batch);
+        count.addAndGet(batch.size());
+        return batch;
+    }
+
+    @Override
+    public List<BookReservation> findAll() {
+        return new ArrayList<>(reservations);
+    }
+
+    @Override
+    public long count() {
+        return count.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+}
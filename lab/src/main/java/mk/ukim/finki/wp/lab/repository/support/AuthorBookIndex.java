@@ -0,0 +1,75 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Reverse index from author id to the ids of that author's books, kept in id order so
+// per-author pages are a range scan. Authors without books drop out of the index, so listing
+// the authors that have books costs as much as the number of such authors.
+public class AuthorBookIndex {
+    private final ConcurrentHashMap<Long, Shelf> shelves = new ConcurrentHashMap<>();
+
+    public void add(Book book) {
+        Long authorId = authorIdOf(book);
+        if (authorId == null) {
+            return;
+        }
+        shelves.compute(authorId, (id, shelf) -> {
+            Shelf next = shelf == null ? new Shelf(book.getAuthor()) : shelf;
+            next.bookIds.add(book.getId());
+            return next;
+        });
+    }
+
+    public void remove(Book book) {
+        Long authorId = authorIdOf(book);
+        if (authorId == null) {
+            return;
+        }
+        shelves.computeIfPresent(authorId, (id, shelf) -> {
+            shelf.bookIds.remove(book.getId());
+            return shelf.bookIds.isEmpty() ? null : shelf;
+        });
+    }
+
+    // Up to limit book ids of the author in id order, starting after afterId (null for the first page)
+    public List<Long> bookIds(Long authorId, Long afterId, int limit) {
+        Shelf shelf = shelves.get(authorId);
+        if (shelf == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Long> it = (afterId == null ? shelf.bookIds : shelf.bookIds.tailSet(afterId, false)).iterator();
+        while (ids.size() < limit && it.hasNext()) {
+            ids.add(it.next());
+        }
+        return ids;
+    }
+
+    public List<Author> authors() {
+        List<Author> authors = new ArrayList<>(shelves.size());
+        for (Shelf shelf : shelves.values()) {
+            authors.add(shelf.author);
+        }
+        return authors;
+    }
+
+    private static Long authorIdOf(Book book) {
+        return book.getAuthor() == null ? null : book.getAuthor().getId();
+    }
+
+    private static final class Shelf {
+        final Author author;
+        final ConcurrentSkipListSet<Long> bookIds = new ConcurrentSkipListSet<>();
+
+        Shelf(Author author) {
+            this.author = author;
+        }
+    }
+}
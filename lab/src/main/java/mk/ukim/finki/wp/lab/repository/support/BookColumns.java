@@ -0,0 +1,665 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+
+// Book catalog stored column by column: one primitive array per field indexed by row, genres and
+// authors dictionary-encoded into int codes, and titles as UTF-8 in a single byte arena (on the
+// heap or in direct memory). Books are only materialized when a row is read. Deleted rows and
+// replaced titles leave holes that are compacted away once they make up half of the storage.
+// Exact title lookups go through a hash of the title bytes: each hash maps to the last row
+// linked under it, and rows sharing a hash are chained through titleNext.
+// Not thread-safe; the owning repository guards reads and writes with a read/write lock.
+public class BookColumns {
+    private static final int INITIAL_ROWS = 64;
+    private static final int INITIAL_ARENA = 4096;
+    private static final int COMPACT_MIN_ROWS = 1024;
+    private static final int COMPACT_MIN_BYTES = 1 << 20;
+    private static final int NONE = -1;
+
+    private final boolean offHeap;
+
+    private long[] ids = new long[INITIAL_ROWS];
+    private long[] versions = new long[INITIAL_ROWS];
+    private double[] ratings = new double[INITIAL_ROWS];
+    private int[] genreCodes = new int[INITIAL_ROWS];
+    private int[] authorCodes = new int[INITIAL_ROWS];
+    private int[] titleOffsets = new int[INITIAL_ROWS];
+    private int[] titleLengths = new int[INITIAL_ROWS];
+    private BitSet deleted = new BitSet();
+    private int rows;
+    private int deletedRows;
+    private RowIndex rowIndex = new RowIndex(INITIAL_ROWS);
+    private int[] titleNext = new int[INITIAL_ROWS];
+    private RowIndex titleHeads = new RowIndex(INITIAL_ROWS);
+
+    private ByteBuffer arena;
+    private int arenaGarbage;
+
+    private final List<String> genres = new ArrayList<>();
+    private final Map<String, Integer> genreDictionary = new HashMap<>();
+    private final List<Author> authors = new ArrayList<>();
+    private final Map<Long, Integer> authorDictionary = new HashMap<>();
+    private int[] authorBookCounts = new int[16];
+
+    // Live rows sorted by id; rebuilt on the first read after a write
+    private volatile int[] order;
+    private long lastAppendedId = Long.MIN_VALUE;
+    private boolean appendedInIdOrder = true;
+
+    public BookColumns(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.arena = allocate(INITIAL_ARENA);
+    }
+
+    public int liveRows() {
+        return rows - deletedRows;
+    }
+
+    public int rowOf(long id) {
+        return rowIndex.get(id);
+    }
+
+    public long version(int row) {
+        return versions[row];
+    }
+
+    // Inserts the book or overwrites the row that already holds its id
+    public void put(Book book) {
+        if (arenaGarbage >= COMPACT_MIN_BYTES && arenaGarbage * 2 > arena.position()) {
+            compact();
+        }
+        long id = book.getId();
+        int row = rowIndex.get(id);
+        if (row == NONE) {
+            row = appendRow(id);
+        } else {
+            releaseRow(row);
+        }
+        versions[row] = book.getVersion();
+        ratings[row] = book.getAverageRating();
+        genreCodes[row] = genreCode(book.getGenre());
+        authorCodes[row] = authorCode(book.getAuthor());
+        if (authorCodes[row] != NONE) {
+            authorBookCounts[authorCodes[row]]++;
+        }
+        writeTitle(row, book.getTitle());
+        order = null;
+    }
+
+    public boolean remove(long id) {
+        int row = rowIndex.remove(id);
+        if (row == NONE) {
+            return false;
+        }
+        releaseRow(row);
+        deleted.set(row);
+        deletedRows++;
+        order = null;
+        if (deletedRows >= COMPACT_MIN_ROWS && deletedRows * 2 > rows) {
+            compact();
+        }
+        return true;
+    }
+
+    public Book book(int row) {
+        int genre = genreCodes[row];
+        int author = authorCodes[row];
+        return new Book(title(row), genre == NONE ? null : genres.get(genre), ratings[row], ids[row],
+                author == NONE ? null : authors.get(author), versions[row]);
+    }
+
+    // Rows whose rating is at least minRating and whose title contains the UTF-8 needle, in row order
+    public void scan(byte[] needle, double minRating, IntConsumer consumer) {
+        double[] ratings = this.ratings;
+        int rows = this.rows;
+        for (int row = 0; row < rows; row++) {
+            if (ratings[row] >= minRating && !deleted.get(row) && titleContains(row, needle)) {
+                consumer.accept(row);
+            }
+        }
+    }
+
+    // Lowest live row whose title is exactly these UTF-8 bytes
+    public int findTitle(byte[] title) {
+        int found = NONE;
+        for (int row = titleHeads.get(titleHash(title)); row != NONE; row = titleNext[row]) {
+            if (titleLengths[row] == title.length && titleContains(row, title) && (found == NONE || row < found)) {
+                found = row;
+            }
+        }
+        return found;
+    }
+
+    // Code of the author with this id, or -1 if no stored book has that author
+    public int authorCodeOf(Long authorId) {
+        Integer code = authorId == null ? null : authorDictionary.get(authorId);
+        return code == null || authorBookCounts[code] == 0 ? NONE : code;
+    }
+
+    public int authorCode(int row) {
+        return authorCodes[row];
+    }
+
+    public List<Author> authorsWithBooks() {
+        List<Author> result = new ArrayList<>();
+        for (int code = 0; code < authors.size(); code++) {
+            if (authorBookCounts[code] > 0) {
+                result.add(authors.get(code));
+            }
+        }
+        return result;
+    }
+
+    // Live rows in id order. Safe to call from concurrent readers: they may build it twice,
+    // but always build the same array.
+    public int[] orderedRows() {
+        int[] current = order;
+        if (current == null) {
+            current = buildOrder();
+            order = current;
+        }
+        return current;
+    }
+
+    // Position in orderedRows of the first row with an id greater than afterId
+    public int positionAfter(int[] orderedRows, Long afterId) {
+        if (afterId == null) {
+            return 0;
+        }
+        int low = 0;
+        int high = orderedRows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[orderedRows[mid]] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public long[] orderedIds() {
+        int[] rowsInOrder = orderedRows();
+        long[] result = new long[rowsInOrder.length];
+        for (int i = 0; i < rowsInOrder.length; i++) {
+            result[i] = ids[rowsInOrder[i]];
+        }
+        return result;
+    }
+
+    // Live rows copied in id order into a new heap instance without holes, the form CatalogSnapshot
+    // writes. One pass over the columns; no Book is materialized.
+    public BookColumns copyInIdOrder() {
+        int[] rowsInOrder = orderedRows();
+        int live = rowsInOrder.length;
+        int titleBytes = 0;
+        for (int row : rowsInOrder) {
+            titleBytes += Math.max(0, titleLengths[row]);
+        }
+        BookColumns copy = new BookColumns(false);
+        copy.grow(Math.max(INITIAL_ROWS, live));
+        copy.arena = ByteBuffer.allocate(Math.max(INITIAL_ARENA, titleBytes));
+        copy.rowIndex = new RowIndex(live);
+        for (int i = 0; i < live; i++) {
+            int row = rowsInOrder[i];
+            copy.ids[i] = ids[row];
+            copy.versions[i] = versions[row];
+            copy.ratings[i] = ratings[row];
+            copy.genreCodes[i] = genreCodes[row];
+            copy.authorCodes[i] = authorCodes[row];
+            copy.titleLengths[i] = titleLengths[row];
+            if (titleLengths[row] > 0) {
+                copy.titleOffsets[i] = copy.arena.position();
+                copy.arena.put(arena.slice(titleOffsets[row], titleLengths[row]));
+            }
+            copy.rowIndex.put(ids[row], i);
+        }
+        copy.rows = live;
+        copy.lastAppendedId = live == 0 ? Long.MIN_VALUE : copy.ids[live - 1];
+        copy.genres.addAll(genres);
+        copy.genreDictionary.putAll(genreDictionary);
+        copy.authors.addAll(authors);
+        copy.authorDictionary.putAll(authorDictionary);
+        copy.authorBookCounts = authorBookCounts.clone();
+        copy.rebuildTitleIndex();
+        return copy;
+    }
+
+    public List<Author> authors() {
+        return List.copyOf(authors);
+    }
+
+    // Sections in the order readFrom expects them; only a copyInIdOrder() image can be written
+    public void writeTo(CatalogSnapshot.Writer out) throws IOException {
+        if (deletedRows > 0 || !appendedInIdOrder) {
+            throw new IllegalStateException("Only a copyInIdOrder() image can be written to a snapshot");
+        }
+        out.longs(ids, rows);
+        out.longs(versions, rows);
+        out.doubles(ratings, rows);
+        out.ints(genreCodes, rows);
+        out.ints(authorCodes, rows);
+        out.ints(titleOffsets, rows);
+        out.ints(titleLengths, rows);
+        out.longs(rowIndex.keys, rowIndex.keys.length);
+        out.ints(rowIndex.values, rowIndex.values.length);
+        out.bytes(arena.duplicate().flip());
+        out.strings(genres);
+        out.longs(authors.stream().mapToLong(Author::getId).toArray(), authors.size());
+        out.ints(authorBookCounts, authors.size());
+    }
+
+    // Columns copied out of the snapshot with bulk reads and the title arena left in the mapped file;
+    // the arena moves to the heap (or direct memory) only once a write needs more room
+    public static BookColumns readFrom(CatalogSnapshot.Reader in, LongFunction<Author> authorsById, boolean offHeap) {
+        BookColumns columns = new BookColumns(offHeap);
+        columns.ids = in.longs();
+        columns.versions = in.longs();
+        columns.ratings = in.doubles();
+        columns.genreCodes = in.ints();
+        columns.authorCodes = in.ints();
+        columns.titleOffsets = in.ints();
+        columns.titleLengths = in.ints();
+        columns.rows = columns.ids.length;
+        columns.rowIndex = new RowIndex(in.longs(), in.ints(), columns.rows);
+        columns.arena = in.bytes();
+        columns.arena.position(columns.arena.limit());
+        for (String genre : in.strings()) {
+            columns.genreCode(genre);
+        }
+        long[] authorIds = in.longs();
+        for (long authorId : authorIds) {
+            Author author = authorsById.apply(authorId);
+            if (author == null) {
+                throw new IllegalStateException("Snapshot references unknown author " + authorId);
+            }
+            columns.authorCode(author);
+        }
+        int[] counts = in.ints();
+        columns.authorBookCounts = Arrays.copyOf(counts, Math.max(16, counts.length * 2));
+        columns.lastAppendedId = columns.rows == 0 ? Long.MIN_VALUE : columns.ids[columns.rows - 1];
+        columns.titleNext = new int[Math.max(INITIAL_ROWS, columns.rows)];
+        columns.rebuildTitleIndex();
+        return columns;
+    }
+
+    public static byte[] utf8(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int[] buildOrder() {
+        int[] result = new int[liveRows()];
+        if (appendedInIdOrder) {
+            int i = 0;
+            for (int row = deleted.nextClearBit(0); row < rows; row = deleted.nextClearBit(row + 1)) {
+                result[i++] = row;
+            }
+            return result;
+        }
+        long[] sortedIds = new long[result.length];
+        int i = 0;
+        for (int row = deleted.nextClearBit(0); row < rows; row = deleted.nextClearBit(row + 1)) {
+            sortedIds[i++] = ids[row];
+        }
+        Arrays.sort(sortedIds);
+        for (i = 0; i < sortedIds.length; i++) {
+            result[i] = rowIndex.get(sortedIds[i]);
+        }
+        return result;
+    }
+
+    private int appendRow(long id) {
+        if (rows == ids.length) {
+            grow(rows + (rows >> 1) + 16);
+        }
+        int row = rows++;
+        ids[row] = id;
+        titleLengths[row] = NONE;
+        authorCodes[row] = NONE;
+        rowIndex.put(id, row);
+        if (id <= lastAppendedId) {
+            appendedInIdOrder = false;
+        }
+        lastAppendedId = Math.max(lastAppendedId, id);
+        return row;
+    }
+
+    // Drops the row's references to its title bytes and author before it is overwritten or deleted
+    private void releaseRow(int row) {
+        if (titleLengths[row] != NONE) {
+            unlinkTitle(row);
+        }
+        if (titleLengths[row] > 0) {
+            arenaGarbage += titleLengths[row];
+        }
+        titleLengths[row] = NONE;
+        if (authorCodes[row] != NONE) {
+            authorBookCounts[authorCodes[row]]--;
+            authorCodes[row] = NONE;
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        genreCodes = Arrays.copyOf(genreCodes, capacity);
+        authorCodes = Arrays.copyOf(authorCodes, capacity);
+        titleOffsets = Arrays.copyOf(titleOffsets, capacity);
+        titleLengths = Arrays.copyOf(titleLengths, capacity);
+        titleNext = Arrays.copyOf(titleNext, capacity);
+    }
+
+    private int genreCode(String genre) {
+        if (genre == null) {
+            return NONE;
+        }
+        return genreDictionary.computeIfAbsent(genre, g -> {
+            genres.add(g);
+            return genres.size() - 1;
+        });
+    }
+
+    // Books of the same author share one dictionary entry; the most recently stored instance wins
+    private int authorCode(Author author) {
+        if (author == null || author.getId() == null) {
+            return NONE;
+        }
+        Integer code = authorDictionary.get(author.getId());
+        if (code != null) {
+            authors.set(code, author);
+            return code;
+        }
+        authors.add(author);
+        code = authors.size() - 1;
+        authorDictionary.put(author.getId(), code);
+        if (code == authorBookCounts.length) {
+            authorBookCounts = Arrays.copyOf(authorBookCounts, code * 2);
+        }
+        return code;
+    }
+
+    private void writeTitle(int row, String title) {
+        if (title == null) {
+            titleLengths[row] = NONE;
+            return;
+        }
+        byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+        if (arena.remaining() < bytes.length) {
+            ByteBuffer larger = allocate(Math.max(arena.capacity() * 2, arena.position() + bytes.length));
+            larger.put(arena.flip());
+            arena = larger;
+        }
+        titleOffsets[row] = arena.position();
+        titleLengths[row] = bytes.length;
+        arena.put(bytes);
+        linkTitle(row);
+    }
+
+    private void linkTitle(int row) {
+        long hash = titleHash(row);
+        titleNext[row] = titleHeads.get(hash);
+        titleHeads.put(hash, row);
+    }
+
+    private void unlinkTitle(int row) {
+        long hash = titleHash(row);
+        int head = titleHeads.get(hash);
+        if (head == row) {
+            if (titleNext[row] == NONE) {
+                titleHeads.remove(hash);
+            } else {
+                titleHeads.put(hash, titleNext[row]);
+            }
+            return;
+        }
+        for (int previous = head; previous != NONE; previous = titleNext[previous]) {
+            if (titleNext[previous] == row) {
+                titleNext[previous] = titleNext[row];
+                return;
+            }
+        }
+    }
+
+    private void rebuildTitleIndex() {
+        titleHeads = new RowIndex(rows);
+        for (int row = deleted.nextClearBit(0); row < rows; row = deleted.nextClearBit(row + 1)) {
+            if (titleLengths[row] != NONE) {
+                linkTitle(row);
+            }
+        }
+    }
+
+    // 64-bit FNV-1a of the title's UTF-8 bytes
+    private long titleHash(int row) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = titleOffsets[row], end = i + titleLengths[row]; i < end; i++) {
+            hash = (hash ^ (arena.get(i) & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long titleHash(byte[] title) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : title) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private String title(int row) {
+        int length = titleLengths[row];
+        if (length == NONE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        arena.get(titleOffsets[row], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Byte-wise substring search; for valid UTF-8 this matches exactly where String.contains would
+    private boolean titleContains(int row, byte[] needle) {
+        int length = titleLengths[row];
+        if (length < needle.length) {
+            return false;
+        }
+        if (needle.length == 0) {
+            return true;
+        }
+        ByteBuffer arena = this.arena;
+        int start = titleOffsets[row];
+        int last = start + length - needle.length;
+        byte first = needle[0];
+        for (int i = start; i <= last; i++) {
+            if (arena.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < needle.length && arena.get(i + j) == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Rewrites the columns without deleted rows and the arena without unreferenced title bytes
+    private void compact() {
+        int live = liveRows();
+        int capacity = Math.max(INITIAL_ROWS, live + (live >> 1));
+        long[] newIds = new long[capacity];
+        long[] newVersions = new long[capacity];
+        double[] newRatings = new double[capacity];
+        int[] newGenres = new int[capacity];
+        int[] newAuthors = new int[capacity];
+        int[] newOffsets = new int[capacity];
+        int[] newLengths = new int[capacity];
+        ByteBuffer newArena = allocate(Math.max(INITIAL_ARENA, arena.position() - arenaGarbage + INITIAL_ARENA));
+        RowIndex newIndex = new RowIndex(capacity);
+        int target = 0;
+        for (int row = deleted.nextClearBit(0); row < rows; row = deleted.nextClearBit(row + 1)) {
+            newIds[target] = ids[row];
+            newVersions[target] = versions[row];
+            newRatings[target] = ratings[row];
+            newGenres[target] = genreCodes[row];
+            newAuthors[target] = authorCodes[row];
+            newLengths[target] = titleLengths[row];
+            if (titleLengths[row] > 0) {
+                newOffsets[target] = newArena.position();
+                newArena.put(arena.slice(titleOffsets[row], titleLengths[row]));
+            }
+            newIndex.put(ids[row], target);
+            target++;
+        }
+        ids = newIds;
+        versions = newVersions;
+        ratings = newRatings;
+        genreCodes = newGenres;
+        authorCodes = newAuthors;
+        titleOffsets = newOffsets;
+        titleLengths = newLengths;
+        arena = newArena;
+        arenaGarbage = 0;
+        rowIndex = newIndex;
+        deleted = new BitSet();
+        rows = live;
+        deletedRows = 0;
+        order = null;
+        titleNext = new int[capacity];
+        rebuildTitleIndex();
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    // Open-addressing id -> row table (linear probing, backward-shift delete), no boxing
+    private static final class RowIndex {
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        RowIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, NONE);
+            mask = capacity - 1;
+        }
+
+        // Adopts tables written from another RowIndex
+        RowIndex(long[] keys, int[] values, int size) {
+            if (keys.length != values.length || Integer.bitCount(keys.length) != 1 || size * 4 > keys.length * 3) {
+                throw new IllegalStateException("Malformed row index in snapshot");
+            }
+            this.keys = keys;
+            this.values = values;
+            this.mask = keys.length - 1;
+            this.size = size;
+        }
+
+        int get(long key) {
+            int index = (int) mix(key) & mask;
+            while (values[index] != NONE) {
+                if (keys[index] == key) {
+                    return values[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return NONE;
+        }
+
+        void put(long key, int value) {
+            int index = (int) mix(key) & mask;
+            while (values[index] != NONE) {
+                if (keys[index] == key) {
+                    values[index] = value;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+            if (++size * 4 > keys.length * 3) {
+                resize();
+            }
+        }
+
+        int remove(long key) {
+            int index = (int) mix(key) & mask;
+            while (values[index] != NONE) {
+                if (keys[index] == key) {
+                    int previous = values[index];
+                    shiftBack(index);
+                    size--;
+                    return previous;
+                }
+                index = (index + 1) & mask;
+            }
+            return NONE;
+        }
+
+        private void shiftBack(int hole) {
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                if (values[index] == NONE) {
+                    break;
+                }
+                int home = (int) mix(keys[index]) & mask;
+                boolean movable = hole <= index ? (home <= hole || home > index) : (home <= hole && home > index);
+                if (movable) {
+                    keys[hole] = keys[index];
+                    values[hole] = values[index];
+                    hole = index;
+                }
+            }
+            values[hole] = NONE;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(values, NONE);
+            mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != NONE) {
+                    int index = (int) mix(oldKeys[i]) & mask;
+                    while (values[index] != NONE) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            key *= 0xc4ceb9fe1a85ec53L;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+// Incrementally maintained title/rating index. Titles are split into trigram posting lists
+// for substring search and ratings are bucketed under a sorted key set so "rating >= r" is a
+// range scan. Both hold primitive LongPostingLists rather than sets of boxed ids. Lookups only
+// produce candidate ids; callers re-check them against the stored book. A posting list or rating
+// bucket is changed, created and dropped inside the map's compute for its key, which also keeps
+// its writers serialized, and one left empty is removed without racing an insert into it.
+public class BookSearchIndex {
+    private static final int GRAM = 3;
+    private static final int RATING_BANDS = 51;
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentLongMap<Entry> entries = new ConcurrentLongMap<>();
+    private final ConcurrentHashMap<String, LongPostingList> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Double, LongPostingList> ratings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Double> ratingKeys = new ConcurrentSkipListSet<>();
+    private final AtomicLongArray ratingHistogram = new AtomicLongArray(RATING_BANDS);
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public BookSearchIndex() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public void index(Book book) {
+        long id = book.getId();
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Entry previous = entries.get(id);
+            if (previous != null) {
+                if (previous.version > book.getVersion()) {
+                    return;
+                }
+                unlink(id, previous);
+            }
+            Entry entry = new Entry(book.getTitle(), book.getAverageRating(), book.getVersion());
+            link(id, entry);
+            entries.put(id, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(long id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unlink(id, previous);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Feeds every id that may match to the consumer, starting from the more selective side.
+    // Text shorter than a trigram can't narrow anything down, so it scans every rating bucket
+    // at or above rating and leaves the title check to the caller.
+    public void candidates(String text, double rating, LongConsumer consumer) {
+        List<LongPostingList.Snapshot> lists = postingsFor(text);
+        if (lists == null) {
+            return;
+        }
+        long ratingEstimate = estimateAtLeast(rating);
+        if (!lists.isEmpty() && lists.get(0).size() <= ratingEstimate) {
+            lists.get(0).forEach(id -> {
+                if (containedInAll(id, lists, 1)) {
+                    consumer.accept(id);
+                }
+            });
+        } else {
+            for (Double key : ratingKeys.tailSet(rating, true)) {
+                LongPostingList ids = ratings.get(key);
+                if (ids == null) {
+                    continue;
+                }
+                ids.snapshot().forEach(id -> {
+                    if (containedInAll(id, lists, 0)) {
+                        consumer.accept(id);
+                    }
+                });
+            }
+        }
+    }
+
+    // Posting lists for every trigram of text, smallest first. Null means some trigram
+    // never occurs, so nothing can match; an empty list means the text is too short to filter on.
+    private List<LongPostingList.Snapshot> postingsFor(String text) {
+        Set<String> grams = trigrams(text);
+        List<LongPostingList.Snapshot> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            LongPostingList ids = postings.get(gram);
+            LongPostingList.Snapshot snapshot = ids == null ? null : ids.snapshot();
+            if (snapshot == null || snapshot.size() == 0) {
+                return null;
+            }
+            lists.add(snapshot);
+        }
+        lists.sort(Comparator.comparingInt(LongPostingList.Snapshot::size));
+        return lists;
+    }
+
+    private static boolean containedInAll(long id, List<LongPostingList.Snapshot> lists, int from) {
+        for (int i = from; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long estimateAtLeast(double rating) {
+        long total = 0;
+        for (int band = band(rating); band < RATING_BANDS; band++) {
+            total += ratingHistogram.get(band);
+        }
+        return total;
+    }
+
+    int postingLists() {
+        return postings.size();
+    }
+
+    int ratingBuckets() {
+        return ratings.size();
+    }
+
+    private void link(long id, Entry entry) {
+        for (String gram : trigrams(entry.title)) {
+            postings.compute(gram, (g, ids) -> {
+                LongPostingList result = ids == null ? new LongPostingList() : ids;
+                result.add(id);
+                return result;
+            });
+        }
+        ratings.compute(entry.rating, (r, ids) -> {
+            LongPostingList result = ids;
+            if (result == null) {
+                result = new LongPostingList();
+                ratingKeys.add(r);
+            }
+            result.add(id);
+            return result;
+        });
+        ratingHistogram.incrementAndGet(band(entry.rating));
+    }
+
+    private void unlink(long id, Entry entry) {
+        for (String gram : trigrams(entry.title)) {
+            postings.computeIfPresent(gram, (g, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        ratings.computeIfPresent(entry.rating, (r, ids) -> {
+            ids.remove(id);
+            if (!ids.isEmpty()) {
+                return ids;
+            }
+            ratingKeys.remove(r);
+            return null;
+        });
+        ratingHistogram.decrementAndGet(band(entry.rating));
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id ^ (id >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private static int band(double rating) {
+        int band = (int) Math.floor(rating * 10);
+        return Math.max(0, Math.min(RATING_BANDS - 1, band));
+    }
+
+    private static Set<String> trigrams(String text) {
+        if (text == null || text.length() < GRAM) {
+            return Set.of();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Entry(String title, double rating, long version) {
+    }
+}
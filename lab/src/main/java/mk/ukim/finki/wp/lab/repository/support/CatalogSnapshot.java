@@ -0,0 +1,470 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Author;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Binary image of the catalog: every author, then the sections of a BookColumns image.
+// Layout (little-endian): a fixed header [long magic][int format][int sections][long sequence]
+// [long created at], a table of [long offset][long length][int crc32c][int unused] per section
+// and a crc32c of header and table; then the sections, each 8-byte aligned. A snapshot is
+// written to a temporary file and renamed into place, so a crash never leaves a partial
+// catalog-*.snap. Opening one maps each section and checks every checksum before anything
+// is read from it; array sections are bulk-copied, the title arena stays mapped.
+public final class CatalogSnapshot {
+    private static final long MAGIC = 0x474C544143424C4CL;
+    private static final int FORMAT = 1;
+    private static final int MAX_SECTIONS = 32;
+    private static final int SECTION_ENTRY_SIZE = 24;
+    private static final int HEADER_SIZE = 32 + MAX_SECTIONS * SECTION_ENTRY_SIZE;
+    private static final int DATA_START = HEADER_SIZE + 8;
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".snap";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private final Path file;
+    private final long sequence;
+    private final long createdAtMillis;
+    private final List<Author> authors;
+    private final Reader columns;
+
+    private CatalogSnapshot(Path file, long sequence, long createdAtMillis, List<Author> authors, Reader columns) {
+        this.file = file;
+        this.sequence = sequence;
+        this.createdAtMillis = createdAtMillis;
+        this.authors = authors;
+        this.columns = columns;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public long createdAtMillis() {
+        return createdAtMillis;
+    }
+
+    public List<Author> authors() {
+        return authors;
+    }
+
+    // Decodes the book columns; call once, the result owns the copied arrays
+    public BookColumns columns(boolean offHeap) {
+        Map<Long, Author> byId = new LinkedHashMap<>();
+        authors.forEach(a -> byId.put(a.getId(), a));
+        return BookColumns.readFrom(columns.rewind(), byId::get, offHeap);
+    }
+
+    // Writes catalog-<sequence>.snap with the given authors plus any author of image that is not among them
+    public static Path write(Path directory, long sequence, List<Author> authors, BookColumns image) {
+        Map<Long, Author> allAuthors = new LinkedHashMap<>();
+        authors.forEach(a -> allAuthors.put(a.getId(), a));
+        image.authors().forEach(a -> allAuthors.putIfAbsent(a.getId(), a));
+        Path target = directory.resolve(fileName(sequence));
+        Path temporary = directory.resolve(fileName(sequence) + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Writer out = new Writer(channel);
+                List<Author> list = new ArrayList<>(allAuthors.values());
+                out.longs(list.stream().mapToLong(Author::getId).toArray(), list.size());
+                out.strings(list.stream().map(Author::getName).toList());
+                out.strings(list.stream().map(Author::getSurname).toList());
+                out.strings(list.stream().map(Author::getCountry).toList());
+                out.strings(list.stream().map(Author::getBiography).toList());
+                image.writeTo(out);
+                out.finish(sequence, System.currentTimeMillis());
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The newest snapshot in the directory that passes every check. Damaged ones are renamed to
+    // *.snap.corrupt, which prune leaves alone, and the previous snapshot is tried instead.
+    public static Optional<CatalogSnapshot> openLatest(Path directory) {
+        for (Path file : snapshots(directory)) {
+            try {
+                return Optional.of(open(file));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skipping damaged catalog snapshot {}", file, e);
+                quarantine(file);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(DATA_START).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // keep reading
+            }
+            if (header.hasRemaining()) {
+                throw new IllegalStateException("Truncated snapshot header in " + file);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(header.array(), 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT || (int) crc.getValue() != header.getInt(HEADER_SIZE)) {
+                throw new IllegalStateException("Not a readable catalog snapshot: " + file);
+            }
+            int sectionCount = header.getInt(12);
+            if (sectionCount < 0 || sectionCount > MAX_SECTIONS) {
+                throw new IllegalStateException("Malformed section table in " + file);
+            }
+            List<ByteBuffer> sections = new ArrayList<>(sectionCount);
+            for (int i = 0; i < sectionCount; i++) {
+                int entry = 32 + i * SECTION_ENTRY_SIZE;
+                long offset = header.getLong(entry);
+                long length = header.getLong(entry + 8);
+                if (offset < DATA_START || length < 0 || length > Integer.MAX_VALUE || offset + length > size) {
+                    throw new IllegalStateException("Section " + i + " lies outside " + file);
+                }
+                ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+                crc.reset();
+                crc.update(section.duplicate());
+                if ((int) crc.getValue() != header.getInt(entry + 16)) {
+                    throw new IllegalStateException("Checksum mismatch in section " + i + " of " + file);
+                }
+                sections.add(section);
+            }
+            Reader reader = new Reader(sections);
+            long[] ids = reader.longs();
+            List<String> names = reader.strings();
+            List<String> surnames = reader.strings();
+            List<String> countries = reader.strings();
+            List<String> biographies = reader.strings();
+            List<Author> authors = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                Author author = new Author(names.get(i), surnames.get(i), countries.get(i), biographies.get(i));
+                author.setId(ids[i]);
+                authors.add(author);
+            }
+            return new CatalogSnapshot(file, header.getLong(16), header.getLong(24), List.copyOf(authors), reader.rest());
+        }
+    }
+
+    // Highest sequence written to the directory so far, 0 if none; quarantined snapshots count,
+    // so their sequence numbers are not reused
+    public static long latestSequence(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX))
+                    .mapToLong(CatalogSnapshot::sequenceOf)
+                    .max().orElse(0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Deletes all but the newest retain snapshots and any temporary file left by an interrupted write
+    public static void prune(Path directory, int retain) {
+        List<Path> snapshots = snapshots(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> stale = new ArrayList<>(snapshots.subList(Math.min(retain, snapshots.size()), snapshots.size()));
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX + ".tmp")).forEach(stale::add);
+            for (Path path : stale) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Newest first
+    private static List<Path> snapshots(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(CatalogSnapshot::sequenceOf).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fileName(long sequence) {
+        return String.format("%s%019d%s", PREFIX, sequence, SUFFIX);
+    }
+
+    private static void quarantine(Path file) {
+        Path target = file.resolveSibling(file.getFileName() + CORRUPT_SUFFIX);
+        try {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Could not rename damaged catalog snapshot {} to {}", file, target, e);
+        }
+    }
+
+    // Sequence in catalog-<sequence>.snap or catalog-<sequence>.snap.corrupt, -1 for any other name
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(CORRUPT_SUFFIX)) {
+            name = name.substring(0, name.length() - CORRUPT_SUFFIX.length());
+        }
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Appends sections through a 1 MiB buffer, checksumming each as it goes; finish() writes the header
+    public static final class Writer {
+        private static final int BUFFER_SIZE = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private final List<long[]> sections = new ArrayList<>();
+        private long position = DATA_START;
+        private long sectionStart;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        public void longs(long[] values, int count) throws IOException {
+            begin();
+            for (int i = 0; i < count; ) {
+                int n = Math.min(count - i, buffer.remaining() / Long.BYTES);
+                if (n == 0) {
+                    drain();
+                    continue;
+                }
+                buffer.asLongBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                i += n;
+            }
+            end();
+        }
+
+        public void doubles(double[] values, int count) throws IOException {
+            begin();
+            for (int i = 0; i < count; ) {
+                int n = Math.min(count - i, buffer.remaining() / Double.BYTES);
+                if (n == 0) {
+                    drain();
+                    continue;
+                }
+                buffer.asDoubleBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                i += n;
+            }
+            end();
+        }
+
+        public void ints(int[] values, int count) throws IOException {
+            begin();
+            for (int i = 0; i < count; ) {
+                int n = Math.min(count - i, buffer.remaining() / Integer.BYTES);
+                if (n == 0) {
+                    drain();
+                    continue;
+                }
+                buffer.asIntBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+            }
+            end();
+        }
+
+        public void bytes(ByteBuffer values) throws IOException {
+            begin();
+            put(values);
+            end();
+        }
+
+        // [int count] then per string [int length, -1 for null][UTF-8 bytes]
+        public void strings(List<String> values) throws IOException {
+            begin();
+            putInt(values.size());
+            for (String value : values) {
+                if (value == null) {
+                    putInt(-1);
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                putInt(bytes.length);
+                put(ByteBuffer.wrap(bytes));
+            }
+            end();
+        }
+
+        private void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                drain();
+            }
+            buffer.putInt(value);
+        }
+
+        private void put(ByteBuffer values) throws IOException {
+            while (values.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(values.remaining(), buffer.remaining());
+                buffer.put(buffer.position(), values, values.position(), n);
+                buffer.position(buffer.position() + n);
+                values.position(values.position() + n);
+            }
+        }
+
+        private void begin() {
+            if (sections.size() == MAX_SECTIONS) {
+                throw new IllegalStateException("Too many snapshot sections");
+            }
+            crc.reset();
+            sectionStart = position;
+        }
+
+        private void end() throws IOException {
+            long length = position + buffer.position() - sectionStart;
+            drain();
+            sections.add(new long[]{sectionStart, length, (int) crc.getValue()});
+            // Align the next section; padding is outside every checksum
+            write(ByteBuffer.allocate((int) (-position & 7)));
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+        }
+
+        void finish(long sequence, long createdAtMillis) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(DATA_START).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(FORMAT).putInt(sections.size()).putLong(sequence).putLong(createdAtMillis);
+            for (long[] section : sections) {
+                header.putLong(section[0]).putLong(section[1]).putInt((int) section[2]).putInt(0);
+            }
+            CRC32C headerCrc = new CRC32C();
+            headerCrc.update(header.array(), 0, HEADER_SIZE);
+            header.putInt(HEADER_SIZE, (int) headerCrc.getValue());
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    // Hands out the verified sections in the order they were written
+    public static final class Reader {
+        private final List<ByteBuffer> sections;
+        private final int first;
+        private int next;
+
+        Reader(List<ByteBuffer> sections) {
+            this(sections, 0);
+        }
+
+        private Reader(List<ByteBuffer> sections, int first) {
+            this.sections = sections;
+            this.first = first;
+            this.next = first;
+        }
+
+        public long[] longs() {
+            ByteBuffer section = next();
+            long[] values = new long[section.remaining() / Long.BYTES];
+            section.asLongBuffer().get(values);
+            return values;
+        }
+
+        public double[] doubles() {
+            ByteBuffer section = next();
+            double[] values = new double[section.remaining() / Double.BYTES];
+            section.asDoubleBuffer().get(values);
+            return values;
+        }
+
+        public int[] ints() {
+            ByteBuffer section = next();
+            int[] values = new int[section.remaining() / Integer.BYTES];
+            section.asIntBuffer().get(values);
+            return values;
+        }
+
+        // The mapped section itself, read-only
+        public ByteBuffer bytes() {
+            return next();
+        }
+
+        public List<String> strings() {
+            ByteBuffer section = next();
+            int count = section.getInt();
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = section.getInt();
+                if (length < 0) {
+                    values.add(null);
+                    continue;
+                }
+                byte[] bytes = new byte[length];
+                section.get(bytes);
+                values.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return values;
+        }
+
+        Reader rest() {
+            return new Reader(sections, next);
+        }
+
+        Reader rewind() {
+            next = first;
+            return this;
+        }
+
+        private ByteBuffer next() {
+            if (next == sections.size()) {
+                throw new IllegalStateException("Snapshot has fewer sections than expected");
+            }
+            return sections.get(next++).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+// Hash map keyed by primitive longs, split into independently locked segments.
+// Each segment is an open-addressing table (linear probing, backward-shift delete),
+// reads are optimistic and only fall back to the read lock when a writer interfered.
+public class ConcurrentLongMap<V> {
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ConcurrentLongMap() {
+        // Java can't create a Segment<V>[] directly; the array stays private and only ever holds Segment<V>
+        @SuppressWarnings("unchecked")
+        Segment<V>[] table = (Segment<V>[]) new Segment<?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            table[i] = new Segment<>();
+        }
+        segments = table;
+    }
+
+    public V get(long key) {
+        long hash = mix(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hash = mix(key);
+        V previous = segmentFor(hash).put(key, hash, value);
+        if (previous == null) {
+            size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hash = mix(key);
+        V existing = segmentFor(hash).putIfAbsent(key, hash, value);
+        if (existing == null) {
+            size.incrementAndGet();
+        }
+        return existing;
+    }
+
+    // Replaces the value only if it is still the expected instance
+    public boolean replace(long key, V expected, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hash = mix(key);
+        return segmentFor(hash).replace(key, hash, expected, value);
+    }
+
+    public V remove(long key) {
+        long hash = mix(key);
+        V previous = segmentFor(hash).remove(key, hash);
+        if (previous != null) {
+            size.decrementAndGet();
+        }
+        return previous;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        for (Segment<V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        forEach(values::add);
+        return values;
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_SEGMENT_CAPACITY);
+        private int count;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            V value = find(table, key, hash);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = find(table, key, hash);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        V put(long key, long hash, V value) {
+            return insert(key, hash, value, true);
+        }
+
+        V putIfAbsent(long key, long hash, V value) {
+            V existing = get(key, hash);
+            return existing != null ? existing : insert(key, hash, value, false);
+        }
+
+        private V insert(long key, long hash, V value, boolean overwrite) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = (int) hash & t.mask;
+                while (t.values[index] != null) {
+                    if (t.keys[index] == key) {
+                        @SuppressWarnings("unchecked")
+                        V previous = (V) t.values[index];
+                        if (overwrite) {
+                            t.values[index] = value;
+                        }
+                        return previous;
+                    }
+                    index = (index + 1) & t.mask;
+                }
+                t.keys[index] = key;
+                t.values[index] = value;
+                if (++count * 4 > t.keys.length * 3) {
+                    table = resize(t);
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean replace(long key, long hash, V expected, V value) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = (int) hash & t.mask;
+                while (t.values[index] != null) {
+                    if (t.keys[index] == key) {
+                        if (t.values[index] != expected) {
+                            return false;
+                        }
+                        t.values[index] = value;
+                        return true;
+                    }
+                    index = (index + 1) & t.mask;
+                }
+                return false;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = (int) hash & t.mask;
+                while (t.values[index] != null) {
+                    if (t.keys[index] == key) {
+                        @SuppressWarnings("unchecked")
+                        V previous = (V) t.values[index];
+                        shiftBack(t, index);
+                        count--;
+                        return previous;
+                    }
+                    index = (index + 1) & t.mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void forEach(Consumer<? super V> action) {
+            List<V> values = new ArrayList<>();
+            long stamp = lock.readLock();
+            try {
+                for (Object value : table.values) {
+                    if (value != null) {
+                        @SuppressWarnings("unchecked")
+                        V v = (V) value;
+                        values.add(v);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            values.forEach(action);
+        }
+
+        @SuppressWarnings("unchecked")
+        private V find(Table t, long key, long hash) {
+            int index = (int) hash & t.mask;
+            for (int probes = 0; probes <= t.mask; probes++) {
+                Object value = t.values[index];
+                if (value == null) {
+                    return null;
+                }
+                if (t.keys[index] == key) {
+                    return (V) value;
+                }
+                index = (index + 1) & t.mask;
+            }
+            return null;
+        }
+
+        private void shiftBack(Table t, int hole) {
+            int index = hole;
+            while (true) {
+                index = (index + 1) & t.mask;
+                if (t.values[index] == null) {
+                    break;
+                }
+                int home = (int) mix(t.keys[index]) & t.mask;
+                boolean movable = hole <= index ? (home <= hole || home > index) : (home <= hole && home > index);
+                if (movable) {
+                    t.keys[hole] = t.keys[index];
+                    t.values[hole] = t.values[index];
+                    hole = index;
+                }
+            }
+            t.values[hole] = null;
+            t.keys[hole] = 0L;
+        }
+
+        private static Table resize(Table old) {
+            Table t = new Table(old.keys.length * 2);
+            for (int i = 0; i < old.keys.length; i++) {
+                if (old.values[i] != null) {
+                    int index = (int) mix(old.keys[i]) & t.mask;
+                    while (t.values[index] != null) {
+                        index = (index + 1) & t.mask;
+                    }
+                    t.keys[index] = old.keys[i];
+                    t.values[index] = old.values[i];
+                }
+            }
+            return t;
+        }
+    }
+}
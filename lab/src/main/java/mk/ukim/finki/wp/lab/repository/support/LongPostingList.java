@@ -0,0 +1,120 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Set of ids for one trigram or rating, stored as a sorted long[] (8 bytes an id instead of a
+// boxed Long in a hash set). Writers must be serialized by the caller; readers take a Snapshot,
+// which never changes. Ids mostly arrive in increasing order, so add appends behind the published
+// size without copying. A removal is noted in a small sorted side array that is folded into the
+// ids once it outgrows an eighth of them. Adding an id below the largest one copies the array.
+final class LongPostingList {
+    private static final int MIN_CAPACITY = 4;
+    private static final long[] NONE = new long[0];
+
+    private volatile Snapshot snapshot = new Snapshot(new long[MIN_CAPACITY], 0, NONE);
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    boolean isEmpty() {
+        return snapshot.size() == 0;
+    }
+
+    void add(long id) {
+        Snapshot current = snapshot;
+        int removedAt = Arrays.binarySearch(current.removed, id);
+        if (removedAt >= 0) {
+            snapshot = new Snapshot(current.ids, current.length, without(current.removed, removedAt));
+            return;
+        }
+        int at = Arrays.binarySearch(current.ids, 0, current.length, id);
+        if (at >= 0) {
+            return;
+        }
+        int insert = -at - 1;
+        if (insert == current.length && current.length < current.ids.length) {
+            // Past the end of every snapshot sharing this array, so no reader looks there
+            current.ids[insert] = id;
+            snapshot = new Snapshot(current.ids, current.length + 1, current.removed);
+            return;
+        }
+        long[] ids = new long[Math.max(MIN_CAPACITY, current.length + (current.length >> 1) + 1)];
+        System.arraycopy(current.ids, 0, ids, 0, insert);
+        ids[insert] = id;
+        System.arraycopy(current.ids, insert, ids, insert + 1, current.length - insert);
+        snapshot = new Snapshot(ids, current.length + 1, current.removed);
+    }
+
+    void remove(long id) {
+        Snapshot current = snapshot;
+        if (!current.contains(id)) {
+            return;
+        }
+        int insert = -Arrays.binarySearch(current.removed, id) - 1;
+        long[] removed = new long[current.removed.length + 1];
+        System.arraycopy(current.removed, 0, removed, 0, insert);
+        removed[insert] = id;
+        System.arraycopy(current.removed, insert, removed, insert + 1, current.removed.length - insert);
+        if (removed.length <= Math.max(MIN_CAPACITY, current.length >> 3)) {
+            snapshot = new Snapshot(current.ids, current.length, removed);
+            return;
+        }
+        long[] ids = new long[Math.max(MIN_CAPACITY, current.length - removed.length)];
+        int count = 0;
+        int r = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (r < removed.length && removed[r] == current.ids[i]) {
+                r++;
+            } else {
+                ids[count++] = current.ids[i];
+            }
+        }
+        snapshot = new Snapshot(ids, count, NONE);
+    }
+
+    private static long[] without(long[] sorted, int index) {
+        if (sorted.length == 1) {
+            return NONE;
+        }
+        long[] result = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, index);
+        System.arraycopy(sorted, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    // The ids below length minus the removed ones, both sorted
+    static final class Snapshot {
+        private final long[] ids;
+        private final int length;
+        private final long[] removed;
+
+        private Snapshot(long[] ids, int length, long[] removed) {
+            this.ids = ids;
+            this.length = length;
+            this.removed = removed;
+        }
+
+        int size() {
+            return length - removed.length;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, length, id) >= 0
+                    && (removed.length == 0 || Arrays.binarySearch(removed, id) < 0);
+        }
+
+        void forEach(LongConsumer consumer) {
+            int r = 0;
+            for (int i = 0; i < length; i++) {
+                long id = ids[i];
+                if (r < removed.length && removed[r] == id) {
+                    r++;
+                } else {
+                    consumer.accept(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Bounded cache with least-recently-used eviction, split into independently locked segments
+// so concurrent readers of different keys rarely contend. Each segment is an access-ordered
+// LinkedHashMap holding its share of the capacity. Each segment counts its writes, so a value
+// loaded while a put or remove hit that segment is returned but not cached: it may be older
+// than the value the write stored.
+public class LruCache<K, V> {
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final Segment<K, V>[] segments;
+
+    public LruCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        // Java can't create a Segment<K, V>[] directly; the array stays private and only ever holds Segment<K, V>
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] table = (Segment<K, V>[]) new Segment<?, ?>[SEGMENTS];
+        int perSegment = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            table[i] = new Segment<>(perSegment);
+        }
+        segments = table;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.writes++;
+            segment.put(key, value);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    // Returns the cached value, or loads, caches and returns it (null results are not cached).
+    // The loader runs outside the lock, so two threads may load the same key at once.
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long stamp;
+        segment.lock.lock();
+        try {
+            V cached = segment.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            stamp = segment.writes;
+        } finally {
+            segment.lock.unlock();
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            segment.lock.lock();
+            try {
+                if (segment.writes == stamp) {
+                    segment.putIfAbsent(key, value);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.writes++;
+            segment.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.writes++;
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return segments[h >>> (32 - SEGMENT_BITS)];
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private long writes;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Immutable catalog in id order: a table of sorted chunks of at most CHUNK_SIZE books, each found
+// by binary search over the chunks' first ids. A write returns a new instance that shares every
+// chunk it didn't touch, so it copies the touched chunks and the chunk table but no other books.
+// A reader holding an instance sees the same catalog however long it takes to walk it.
+public final class OrderedCatalog implements Iterable<Book> {
+    private static final int CHUNK_SIZE = 128;
+
+    public static final OrderedCatalog EMPTY = new OrderedCatalog(new long[0], new Chunk[0], 0);
+
+    private final long[] firstIds;
+    private final Chunk[] chunks;
+    private final int size;
+
+    private OrderedCatalog(long[] firstIds, Chunk[] chunks, int size) {
+        this.firstIds = firstIds;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public OrderedCatalog with(Book book) {
+        return withAll(List.of(book));
+    }
+
+    // Inserts the books or replaces those with the same id; the last of several with one id wins
+    public OrderedCatalog withAll(Collection<Book> books) {
+        if (books.isEmpty()) {
+            return this;
+        }
+        Book[] updates = books.toArray(Book[]::new);
+        Arrays.sort(updates, Comparator.comparingLong(Book::getId));
+        List<Chunk> result = new ArrayList<>(chunks.length + 1);
+        int added = 0;
+        int next = 0;
+        for (int i = 0; i < chunks.length || next < updates.length; i++) {
+            Chunk chunk = i < chunks.length ? chunks[i] : Chunk.EMPTY;
+            int end = next;
+            boolean last = i >= chunks.length - 1;
+            while (end < updates.length && (last || updates[end].getId() < firstIds[i + 1])) {
+                end++;
+            }
+            if (end == next) {
+                if (chunk.ids.length > 0) {
+                    result.add(chunk);
+                }
+                continue;
+            }
+            Book[] merged = new Book[chunk.ids.length + end - next];
+            int count = 0;
+            int c = 0;
+            for (int u = next; u < end; u++) {
+                long id = updates[u].getId();
+                while (c < chunk.ids.length && chunk.ids[c] < id) {
+                    merged[count++] = chunk.books[c++];
+                }
+                if (c < chunk.ids.length && chunk.ids[c] == id) {
+                    c++;
+                } else if (count > 0 && merged[count - 1].getId() == id) {
+                    count--;
+                } else {
+                    added++;
+                }
+                merged[count++] = updates[u];
+            }
+            while (c < chunk.ids.length) {
+                merged[count++] = chunk.books[c++];
+            }
+            for (int from = 0; from < count; from += CHUNK_SIZE) {
+                result.add(Chunk.of(merged, from, Math.min(count, from + CHUNK_SIZE)));
+            }
+            next = end;
+        }
+        return of(result, size + added);
+    }
+
+    public OrderedCatalog without(long id) {
+        if (chunks.length == 0) {
+            return this;
+        }
+        int i = chunkFor(id);
+        Chunk chunk = chunks[i];
+        int position = Arrays.binarySearch(chunk.ids, id);
+        if (position < 0) {
+            return this;
+        }
+        List<Chunk> result = new ArrayList<>(Arrays.asList(chunks));
+        if (chunk.ids.length == 1) {
+            result.remove(i);
+        } else {
+            Book[] remaining = new Book[chunk.ids.length - 1];
+            System.arraycopy(chunk.books, 0, remaining, 0, position);
+            System.arraycopy(chunk.books, position + 1, remaining, position, remaining.length - position);
+            result.set(i, Chunk.of(remaining, 0, remaining.length));
+        }
+        return of(result, size - 1);
+    }
+
+    // Up to limit books with an id greater than afterId (null for the first page)
+    public List<Book> page(Long afterId, int limit) {
+        List<Book> page = new ArrayList<>(Math.min(limit, size));
+        Cursor cursor = new Cursor(afterId);
+        while (page.size() < limit && cursor.hasNext()) {
+            page.add(cursor.next());
+        }
+        return page;
+    }
+
+    public List<Book> toList() {
+        return page(null, size);
+    }
+
+    @Override
+    public Iterator<Book> iterator() {
+        return new Cursor(null);
+    }
+
+    public Stream<Book> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    // Index of the chunk whose range holds id: the last one starting at or below it, else the first
+    private int chunkFor(long id) {
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstIds[mid] <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static OrderedCatalog of(List<Chunk> chunks, int size) {
+        long[] firstIds = new long[chunks.size()];
+        for (int i = 0; i < firstIds.length; i++) {
+            firstIds[i] = chunks.get(i).ids[0];
+        }
+        return new OrderedCatalog(firstIds, chunks.toArray(Chunk[]::new), size);
+    }
+
+    private final class Cursor implements Iterator<Book> {
+        private int chunk;
+        private int position;
+
+        Cursor(Long afterId) {
+            if (afterId != null && chunks.length > 0) {
+                chunk = chunkFor(afterId);
+                int found = Arrays.binarySearch(chunks[chunk].ids, afterId);
+                position = found >= 0 ? found + 1 : -found - 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (chunk < chunks.length && position == chunks[chunk].ids.length) {
+                chunk++;
+                position = 0;
+            }
+            return chunk < chunks.length;
+        }
+
+        @Override
+        public Book next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunks[chunk].books[position++];
+        }
+    }
+
+    private static final class Chunk {
+        static final Chunk EMPTY = new Chunk(new long[0], new Book[0]);
+
+        final long[] ids;
+        final Book[] books;
+
+        private Chunk(long[] ids, Book[] books) {
+            this.ids = ids;
+            this.books = books;
+        }
+
+        static Chunk of(Book[] sorted, int from, int to) {
+            Book[] books = Arrays.copyOfRange(sorted, from, to);
+            long[] ids = new long[books.length];
+            for (int i = 0; i < books.length; i++) {
+                ids[i] = books[i].getId();
+            }
+            return new Chunk(ids, books);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only reservation log split into fixed-size memory-mapped segment files.
+// Every record is [int length][int crc32][payload]; a zero length marks the end of a segment.
+// Writers only copy bytes into the mapping and then wait for a background flusher, which
+// forces everything appended so far in one go (group commit).
+public class ReservationJournal implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "reservations-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition flushRequested = commitLock.newCondition();
+    private final Condition flushed = commitLock.newCondition();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private volatile long appended;
+    private volatile long durable;
+    private volatile boolean running = true;
+    private volatile IOException failure;
+    private final Thread flusher;
+
+    public ReservationJournal(Path directory, int segmentSize, long flushIntervalMillis) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.flusher = new Thread(this::flushLoop, "reservation-journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    // Replays every intact record in segment order and positions the journal after the last one.
+    // Must be called once, before the first append.
+    public long replay(Consumer<BookReservation> consumer) {
+        long count = 0;
+        try {
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size(); i++) {
+                boolean last = i == segments.size() - 1;
+                Path path = segments.get(i);
+                try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                    count += readSegment(buffer, consumer);
+                }
+                if (last) {
+                    segmentIndex = indexOf(path);
+                    openSegment(segmentIndex);
+                    positionAfterLastRecord();
+                }
+            }
+            if (segments.isEmpty()) {
+                openSegment(0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        flusher.start();
+        return count;
+    }
+
+    public void append(BookReservation reservation) {
+        awaitDurable(write(List.of(encode(reservation))));
+    }
+
+    public void appendAll(List<BookReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        awaitDurable(write(reservations.stream().map(ReservationJournal::encode).toList()));
+    }
+
+    private long write(List<byte[]> records) {
+        appendLock.lock();
+        try {
+            for (byte[] payload : records) {
+                int size = HEADER_SIZE + payload.length;
+                if (size >= segmentSize) {
+                    throw new IllegalArgumentException("Reservation is too large for a journal segment");
+                }
+                if (segment.remaining() < size + 4) {
+                    roll();
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                segment.putInt(payload.length);
+                segment.putInt((int) crc.getValue());
+                segment.put(payload);
+            }
+            appended += records.size();
+            return appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void awaitDurable(long ticket) {
+        commitLock.lock();
+        try {
+            flushRequested.signal();
+            while (durable < ticket) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Reservation journal flush failed", failure);
+                }
+                if (!running) {
+                    throw new IllegalStateException("Reservation journal is closed");
+                }
+                flushed.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            commitLock.lock();
+            try {
+                if (durable == appended) {
+                    flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                commitLock.unlock();
+            }
+            try {
+                flushOnce();
+            } catch (UncheckedIOException e) {
+                failure = e.getCause();
+                commitLock.lock();
+                try {
+                    flushed.signalAll();
+                } finally {
+                    commitLock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private void flushOnce() {
+        long target;
+        MappedByteBuffer buffer;
+        appendLock.lock();
+        try {
+            target = appended;
+            buffer = segment;
+        } finally {
+            appendLock.unlock();
+        }
+        if (target == durable) {
+            return;
+        }
+        buffer.force();
+        commitLock.lock();
+        try {
+            durable = target;
+            flushed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(++segmentIndex);
+    }
+
+    private void openSegment(int index) throws IOException {
+        channel = FileChannel.open(directory.resolve(segmentName(index)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    // Leaves the segment positioned after the last intact record and zeroes any torn tail,
+    // so a half-written record can't be mistaken for data on the next replay.
+    private void positionAfterLastRecord() {
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.limit()
+                    || !checksumMatches(segment, position, length)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        // Record headers start with a zero byte, so the whole rest of the segment is cleared rather
+        // than stopping at the first zero
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = position; i < segment.limit(); i += zeros.length) {
+            segment.put(i, zeros, 0, Math.min(zeros.length, segment.limit() - i));
+        }
+        segment.force();
+        segment.position(position);
+    }
+
+    private static long readSegment(ByteBuffer buffer, Consumer<BookReservation> consumer) {
+        long count = 0;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.limit()
+                    || !checksumMatches(buffer, position, length)) {
+                break;
+            }
+            consumer.accept(decode(buffer.slice(position + HEADER_SIZE, length)));
+            position += HEADER_SIZE + length;
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean checksumMatches(ByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(position + 4);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String segmentName(int index) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Payload: zig-zag varint copies (0 for null, otherwise shifted by one), then title,
+    // reader name and address as varint length (0 for null, otherwise length + 1) + UTF-8.
+    static byte[] encode(BookReservation reservation) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        Long copies = reservation.getNumberOfCopies();
+        writeVarLong(out, copies == null ? 0 : zigZag(copies) + 1);
+        writeString(out, reservation.getBookTitle());
+        writeString(out, reservation.getReaderName());
+        writeString(out, reservation.getReaderAddress());
+        return out.toByteArray();
+    }
+
+    static BookReservation decode(ByteBuffer in) {
+        long copies = readVarLong(in);
+        String title = readString(in);
+        String readerName = readString(in);
+        String readerAddress = readString(in);
+        return new BookReservation(title, readerName, readerAddress, copies == 0 ? null : unZigZag(copies - 1));
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in reservation journal");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        appendLock.lock();
+        try {
+            if (segment != null) {
+                segment.force();
+                durable = appended;
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        commitLock.lock();
+        try {
+            flushed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.lab.service;
+
+public interface BookInventoryService {
+    boolean reserve(Long bookId, int copies);
+
+    void release(Long bookId, int copies);
+
+    long available(Long bookId);
+
+    void stock(Long bookId, long copies);
+
+    // Drops the counter of a book that no longer exists
+    void forget(Long bookId);
+}
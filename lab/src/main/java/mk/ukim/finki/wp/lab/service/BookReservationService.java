@@ -2,6 +2,13 @@ package mk.ukim.finki.wp.lab.service;
 
 import mk.ukim.finki.wp.lab.model.BookReservation;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface BookReservationService {
     BookReservation placeReservation(String bookTitle, String readerName, String readerAddress, int numberOfCopies);
+
+    CompletableFuture<BookReservation> placeReservationAsync(String bookTitle, String readerName, String readerAddress, int numberOfCopies);
+
+    // Gives back copies the reader holds under an earlier reservation of the title
+    void returnCopies(String bookTitle, String readerName, int numberOfCopies);
 }
@@ -2,12 +2,25 @@ package mk.ukim.finki.wp.lab.service;
 
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookFacets;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.model.BookSearchResult;
 
 import java.util.List;
 
 public interface BookService {
     List<Book> listAll();
+
+    BookPage listPage(Long after, Integer size);
+
+    BookPage listPageByAuthor(Long authorId, Long after, Integer size);
     List<Book> searchBooks(String text, Double rating);
+
+    // One keyset page of search results, in id order, with the facet counts of every match
+    BookSearchResult searchBooksWithFacets(String text, Double rating, Long after, Integer size);
+
+    // Facet counts for the whole catalog
+    BookFacets facets();
     void deleteById(Long id);
 
     Book findById(Long id);
@@ -15,4 +28,6 @@ public interface BookService {
     List<Author> listAllAuthors();
 
     void save(Book book);
+
+    Book update(Book book);
 }
@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.lab.service;
+
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import mk.ukim.finki.wp.lab.service.transfer.ImportResult;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public interface CatalogTransferService {
+    ImportResult importBooks(ReadableByteChannel source, CatalogFormat format) throws IOException;
+
+    void exportBooks(WritableByteChannel target, CatalogFormat format) throws IOException;
+}
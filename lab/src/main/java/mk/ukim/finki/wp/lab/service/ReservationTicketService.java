@@ -0,0 +1,15 @@
+package mk.ukim.finki.wp.lab.service;
+
+import mk.ukim.finki.wp.lab.model.ReservationTicket;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ReservationTicketService {
+    // Validates and queues the reservation without waiting for it to be stored
+    ReservationTicket submit(String bookTitle, String readerName, String readerAddress, int numberOfCopies);
+
+    ReservationTicket findById(String id);
+
+    // Completes with the final ticket once the reservation is confirmed or rejected
+    CompletableFuture<ReservationTicket> completion(String id);
+}
@@ -1,5 +1,6 @@
 package mk.ukim.finki.wp.lab.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.repository.AuthorRepository;
 import mk.ukim.finki.wp.lab.service.AuthorService;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
+@Timed(value = "lab.service", histogram = true)
 public class AuthorServiceImpl implements AuthorService {
     private final AuthorRepository authorRepository;
 
@@ -19,4 +21,9 @@ public class AuthorServiceImpl implements AuthorService {
     public List<Author> findAll() {
         return authorRepository.findAll();
     }
+
+    @Override
+    public Author findById(Long id) {
+        return authorRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Author not found"));
+    }
 }
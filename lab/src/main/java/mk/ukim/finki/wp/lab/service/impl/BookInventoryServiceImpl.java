@@ -0,0 +1,80 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import mk.ukim.finki.wp.lab.repository.support.ConcurrentLongMap;
+import mk.ukim.finki.wp.lab.service.BookInventoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Available copies per book id. Every book has its own counter, so a hot title only
+// contends with itself; reserving is a compare-and-set loop, never a lock.
+@Service
+@Timed(value = "lab.service", histogram = true)
+public class BookInventoryServiceImpl implements BookInventoryService {
+    private final ConcurrentLongMap<AtomicLong> copies = new ConcurrentLongMap<>();
+    private final long defaultCopies;
+
+    public BookInventoryServiceImpl(@Value("${lab.inventory.default-copies:10}") long defaultCopies) {
+        this.defaultCopies = defaultCopies;
+    }
+
+    @Override
+    public boolean reserve(Long bookId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of copies must be positive");
+        }
+        AtomicLong available = counterFor(bookId);
+        while (true) {
+            long current = available.get();
+            if (current < count) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - count)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(Long bookId, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of copies must be positive");
+        }
+        counterFor(bookId).addAndGet(count);
+    }
+
+    @Override
+    public long available(Long bookId) {
+        return counterFor(bookId).get();
+    }
+
+    @Override
+    public void stock(Long bookId, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of copies can't be negative");
+        }
+        counterFor(bookId).set(count);
+    }
+
+    @Override
+    public void forget(Long bookId) {
+        if (bookId != null) {
+            copies.remove(bookId);
+        }
+    }
+
+    private AtomicLong counterFor(Long bookId) {
+        if (bookId == null) {
+            throw new IllegalArgumentException("Book id is required");
+        }
+        AtomicLong counter = copies.get(bookId);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong(defaultCopies);
+            AtomicLong existing = copies.putIfAbsent(bookId, created);
+            counter = existing != null ? existing : created;
+        }
+        return counter;
+    }
+}
@@ -1,27 +1,129 @@
 package mk.ukim.finki.wp.lab.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import mk.ukim.finki.wp.lab.model.Book;
 import mk.ukim.finki.wp.lab.model.BookReservation;
-import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationTimeoutException;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.service.BookInventoryService;
 import mk.ukim.finki.wp.lab.service.BookReservationService;
+import mk.ukim.finki.wp.lab.service.ingest.ReservationIngestionPipeline;
+import mk.ukim.finki.wp.lab.service.support.ReservationLedger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Service
+@Timed(value = "lab.service", histogram = true)
 public class BookReservationServiceImpl implements BookReservationService {
 
-    private final BookReservationRepository bookReservationRepository;
+    private final ReservationIngestionPipeline reservationIngestionPipeline;
+    private final BookRepository bookRepository;
+    private final BookInventoryService bookInventoryService;
+    private final ReservationLedger reservationLedger;
+    private final long waitTimeoutMillis;
 
-    public BookReservationServiceImpl(BookReservationRepository bookReservationRepository) {
-        this.bookReservationRepository = bookReservationRepository;
+    public BookReservationServiceImpl(ReservationIngestionPipeline reservationIngestionPipeline,
+                                      BookRepository bookRepository,
+                                      BookInventoryService bookInventoryService,
+                                      ReservationLedger reservationLedger,
+                                      @Value("${lab.reservations.ingest.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.reservationIngestionPipeline = reservationIngestionPipeline;
+        this.bookRepository = bookRepository;
+        this.bookInventoryService = bookInventoryService;
+        this.reservationLedger = reservationLedger;
+        this.waitTimeoutMillis = waitTimeoutMillis;
     }
 
 
     @Override
     public BookReservation placeReservation(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
-        if(bookTitle.isEmpty()||readerName==null||readerName.isEmpty()||readerAddress==null||readerAddress.isEmpty()||numberOfCopies==0){
+        BookReservation bookReservation = new BookReservation(bookTitle, readerName, readerAddress, (long) numberOfCopies);
+        return await(place(bookReservation), bookReservation);
+    }
+
+    // Bounded so a stalled store fails the request instead of holding its thread indefinitely. A reservation
+    // still in the queue is withdrawn, so the caller is never told it failed when it is stored later on.
+    // The timeout goes on a copy: completing stored itself would skip its whenComplete bookkeeping.
+    private <T> T await(CompletableFuture<T> stored, BookReservation submitted) {
+        try {
+            return stored.copy().orTimeout(waitTimeoutMillis, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                if (reservationIngestionPipeline.withdraw(submitted)) {
+                    throw new ReservationTimeoutException("The reservation could not be stored in time and was not made, please try again shortly");
+                }
+                throw new ReservationTimeoutException("The reservation is still being stored and may yet go through, please check before trying again");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<BookReservation> placeReservationAsync(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
+        return place(new BookReservation(bookTitle, readerName, readerAddress, (long) numberOfCopies));
+    }
+
+    private CompletableFuture<BookReservation> place(BookReservation bookReservation) {
+        String bookTitle = bookReservation.getBookTitle();
+        String readerName = bookReservation.getReaderName();
+        String readerAddress = bookReservation.getReaderAddress();
+        int numberOfCopies = bookReservation.getNumberOfCopies().intValue();
+        if(bookTitle==null||bookTitle.isEmpty()||readerName==null||readerName.isEmpty()||readerAddress==null||readerAddress.isEmpty()||numberOfCopies<=0){
             throw new IllegalArgumentException();
 
         }
-        BookReservation bookReservation=new BookReservation(bookTitle,readerName,readerAddress,(long)numberOfCopies);
-        return bookReservationRepository.save(bookReservation);
+        Book book = bookRepository.findByTitle(bookTitle).orElseThrow(() -> new IllegalArgumentException("Book not found"));
+        if (!bookInventoryService.reserve(book.getId(), numberOfCopies)) {
+            throw new IllegalArgumentException("Not enough copies available");
+        }
+        try {
+            return reservationIngestionPipeline.submit(bookReservation)
+                    .whenComplete((stored, failure) -> {
+                        if (failure != null) {
+                            bookInventoryService.release(book.getId(), numberOfCopies);
+                        } else {
+                            reservationLedger.reserved(bookTitle, readerName, numberOfCopies);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            bookInventoryService.release(book.getId(), numberOfCopies);
+            throw e;
+        }
+    }
+
+    @Override
+    public void returnCopies(String bookTitle, String readerName, int numberOfCopies) {
+        if (bookTitle == null || bookTitle.isEmpty() || readerName == null || readerName.isEmpty() || numberOfCopies <= 0) {
+            throw new IllegalArgumentException();
+        }
+        Book book = bookRepository.findByTitle(bookTitle).orElseThrow(() -> new IllegalArgumentException("Book not found"));
+        if (!reservationLedger.tryReturn(bookTitle, readerName, numberOfCopies)) {
+            throw new IllegalArgumentException("No reservation holds that many copies");
+        }
+        // Stored like a reservation with negative copies, so the ledger can be replayed on startup
+        BookReservation returned = new BookReservation(bookTitle, readerName, null, (long) -numberOfCopies);
+        CompletableFuture<BookReservation> stored;
+        try {
+            stored = reservationIngestionPipeline.submit(returned)
+                    .whenComplete((done, failure) -> {
+                        if (failure != null) {
+                            reservationLedger.reserved(bookTitle, readerName, numberOfCopies);
+                        } else {
+                            bookInventoryService.release(book.getId(), numberOfCopies);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            reservationLedger.reserved(bookTitle, readerName, numberOfCopies);
+            throw e;
+        }
+        await(stored, returned);
     }
 }
@@ -1,20 +1,39 @@
 package mk.ukim.finki.wp.lab.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookFacets;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.model.BookSearchResult;
 import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.service.BookInventoryService;
 import mk.ukim.finki.wp.lab.service.BookService;
+import mk.ukim.finki.wp.lab.service.support.CatalogFacets;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
 
 @Service
+@Timed(value = "lab.service", histogram = true)
 public class BookServiceImpl implements BookService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final BookRepository bookRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogFacets catalogFacets;
+    private final BookInventoryService bookInventoryService;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, CatalogVersion catalogVersion, CatalogFacets catalogFacets,
+                           BookInventoryService bookInventoryService) {
         this.bookRepository = bookRepository;
+        this.catalogVersion = catalogVersion;
+        this.catalogFacets = catalogFacets;
+        this.bookInventoryService = bookInventoryService;
     }
 
     @Override
@@ -22,6 +41,31 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAll();
     }
 
+    @Override
+    public BookPage listPage(Long after, Integer size) {
+        int pageSize = pageSize(size);
+        return toPage(bookRepository.findPage(after, pageSize + 1), pageSize);
+    }
+
+    @Override
+    public BookPage listPageByAuthor(Long authorId, Long after, Integer size) {
+        int pageSize = pageSize(size);
+        return toPage(bookRepository.findPageByAuthor(authorId, after, pageSize + 1), pageSize);
+    }
+
+    private static int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+    }
+
+    // One extra book is fetched to tell whether a next page exists
+    private static BookPage toPage(List<Book> books, int pageSize) {
+        if (books.size() > pageSize) {
+            books = books.subList(0, pageSize);
+            return new BookPage(books, books.get(pageSize - 1).getId(), pageSize);
+        }
+        return new BookPage(books, null, pageSize);
+    }
+
     @Override
     public List<Book> searchBooks(String text, Double rating) {
         if(text==null||text.isEmpty()||rating==null){
@@ -30,23 +74,56 @@ public class BookServiceImpl implements BookService {
         return bookRepository.searchBooks(text,rating);
     }
 
+    @Override
+    public BookSearchResult searchBooksWithFacets(String text, Double rating, Long after, Integer size) {
+        List<Book> books = searchBooks(text, rating);
+        int pageSize = pageSize(size);
+        List<Book> page = books.stream()
+                .filter(b -> after == null || b.getId() > after)
+                .sorted(Comparator.comparing(Book::getId))
+                .limit(pageSize + 1)
+                .toList();
+        return new BookSearchResult(toPage(page, pageSize), CatalogFacets.of(books));
+    }
+
+    @Override
+    public BookFacets facets() {
+        return catalogFacets.snapshot();
+    }
+
     @Override
     public void deleteById(Long id) {
-        bookRepository.deleteById(id);
+        catalogFacets.track(id, () -> {
+            bookRepository.deleteById(id);
+            return null;
+        });
+        bookInventoryService.forget(id);
+        catalogVersion.bump();
     }
 
     @Override
     public Book findById(Long id) {
-        return bookRepository.findAll().stream().filter(b->b.getId().equals(id)).findFirst().orElseThrow(()->new IllegalArgumentException("Book with given id not found"));
+        return bookRepository.findById(id).orElseThrow(()->new IllegalArgumentException("Book with given id not found"));
     }
 
     @Override
     public List<Author> listAllAuthors() {
-        return (List<Author>) bookRepository.findAll().stream().map(Book::getAuthor).toList();
+        return bookRepository.findAuthors();
     }
 
     @Override
     public void save(Book book) {
-        bookRepository.save(book);
+        catalogFacets.track(book.getId(), () -> {
+            bookRepository.save(book);
+            return book;
+        });
+        catalogVersion.bump();
+    }
+
+    @Override
+    public Book update(Book book) {
+        Book updated = catalogFacets.track(book.getId(), () -> bookRepository.update(book));
+        catalogVersion.bump();
+        return updated;
     }
 }
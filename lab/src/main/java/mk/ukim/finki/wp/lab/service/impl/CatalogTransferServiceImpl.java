@@ -0,0 +1,249 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.support.IdGenerator;
+import mk.ukim.finki.wp.lab.repository.AuthorRepository;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.service.CatalogTransferService;
+import mk.ukim.finki.wp.lab.service.support.CatalogFacets;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogRecords;
+import mk.ukim.finki.wp.lab.service.transfer.ImportResult;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Imports read the source in fixed-size chunks cut at line boundaries and hand each chunk to a
+// fork/join pool, which splits it further and stores parsed books in batches. At most a few
+// chunks per core are in flight, so memory stays bounded however large the file is.
+@Service
+public class CatalogTransferServiceImpl implements CatalogTransferService {
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int LEAF_BYTES = 64 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final int EXPORT_BUFFER_CHARS = 64 * 1024;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogFacets catalogFacets;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public CatalogTransferServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+                                      CatalogVersion catalogVersion, CatalogFacets catalogFacets) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.catalogVersion = catalogVersion;
+        this.catalogFacets = catalogFacets;
+    }
+
+    @Override
+    public ImportResult importBooks(ReadableByteChannel source, CatalogFormat format) throws IOException {
+        long start = System.nanoTime();
+        Import job = new Import(format);
+
+        int maxInFlight = pool.getParallelism() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+        try {
+            boolean done = false;
+            while (!done && job.failure.get() == null) {
+                done = fill(source, buffer);
+                buffer.flip();
+                int end = done ? buffer.limit() : lastLineEnd(buffer);
+                if (end == 0 && !done) {
+                    throw new IllegalArgumentException("Catalog line longer than " + CHUNK_BYTES + " bytes");
+                }
+                if (end > 0) {
+                    byte[] chunk = new byte[end];
+                    buffer.get(chunk);
+                    inFlight.acquire();
+                    pool.execute(new ChunkTask(job, chunk, inFlight));
+                }
+                buffer.compact();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing the catalog", e);
+        } finally {
+            // Every finished chunk gives its permit back; wait for them even when reading failed,
+            // so the facets aren't recounted while chunks are still storing books
+            inFlight.acquireUninterruptibly(maxInFlight);
+            if (job.imported.sum() > 0) {
+                // Imported rows go straight to the repository, so the facets are recounted once at the end
+                catalogFacets.rebuild();
+                catalogVersion.bump();
+            }
+        }
+        Throwable failure = job.failure.get();
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Catalog import failed", failure);
+        }
+        return new ImportResult(job.imported.sum(), job.rejected.sum(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void exportBooks(WritableByteChannel target, CatalogFormat format) throws IOException {
+        Writer out = new BufferedWriter(Channels.newWriter(target, StandardCharsets.UTF_8), EXPORT_BUFFER_CHARS);
+        Iterator<Book> books = bookRepository.stream().iterator();
+        if (format == CatalogFormat.CSV) {
+            out.write(CatalogRecords.CSV_HEADER);
+            out.write('\n');
+            while (books.hasNext()) {
+                CatalogRecords.writeCsv(out, books.next());
+            }
+        } else {
+            JsonGenerator json = CatalogRecords.jsonGenerator(out);
+            while (books.hasNext()) {
+                CatalogRecords.writeJson(json, books.next());
+            }
+            json.flush();
+        }
+        out.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Reads until the buffer is full or the source ends; true at end of input
+    private static boolean fill(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int lastLineEnd(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private final class Import {
+        final CatalogFormat format;
+        final LongAdder imported = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Import(CatalogFormat format) {
+            this.format = format;
+        }
+
+        void parse(byte[] data, int from, int to) {
+            List<Book> batch = new ArrayList<>(BATCH_SIZE);
+            // Rows without an id get one from a block reserved for this piece of the file
+            LongSupplier ids = IdGenerator.shared().blocks(BATCH_SIZE);
+            int lineStart = from;
+            while (lineStart < to) {
+                int lineEnd = lineStart;
+                while (lineEnd < to && data[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart && !(format == CatalogFormat.CSV && CatalogRecords.isCsvHeader(data, lineStart, contentEnd))) {
+                    Book book = CatalogRecords.parse(format, data, lineStart, contentEnd, id -> authorRepository.findById(id).orElse(null), ids);
+                    if (book == null) {
+                        rejected.increment();
+                    } else {
+                        batch.add(book);
+                        if (batch.size() == BATCH_SIZE) {
+                            store(batch);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            if (!batch.isEmpty()) {
+                store(batch);
+            }
+        }
+
+        private void store(List<Book> batch) {
+            bookRepository.saveAll(batch);
+            imported.add(batch.size());
+        }
+    }
+
+    // Splits a chunk at line boundaries until the pieces are small enough to parse directly
+    private static final class ParseTask extends RecursiveAction {
+        private final Import job;
+        private final byte[] data;
+        private final int from;
+        private final int to;
+
+        ParseTask(Import job, byte[] data, int from, int to) {
+            this.job = job;
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_BYTES) {
+                int middle = from + (to - from) / 2;
+                while (middle < to && data[middle] != '\n') {
+                    middle++;
+                }
+                if (middle < to - 1) {
+                    invokeAll(new ParseTask(job, data, from, middle + 1), new ParseTask(job, data, middle + 1, to));
+                    return;
+                }
+            }
+            job.parse(data, from, to);
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private final Import job;
+        private final byte[] chunk;
+        private final Semaphore inFlight;
+
+        ChunkTask(Import job, byte[] chunk, Semaphore inFlight) {
+            this.job = job;
+            this.chunk = chunk;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new ParseTask(job, chunk, 0, chunk.length).compute();
+            } catch (Throwable e) {
+                job.failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import mk.ukim.finki.wp.lab.model.ReservationTicket;
+import mk.ukim.finki.wp.lab.model.ReservationTicket.Status;
+import mk.ukim.finki.wp.lab.service.BookReservationService;
+import mk.ukim.finki.wp.lab.service.ReservationTicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Tickets for reservations placed through placeReservationAsync. Only validation, the inventory
+// reservation and the queue hand-off run on the caller's thread; tickets are completed by the
+// ingestion pipeline's consumer once the batch is stored. Finished tickets are kept for
+// lab.reservations.tickets.retention-ms, and the oldest are dropped early beyond max-finished.
+// Expired tickets are dropped whenever a ticket is submitted, finished or looked up, so a
+// lookup never returns one past its retention even when nothing new has finished since.
+@Service
+public class ReservationTicketServiceImpl implements ReservationTicketService {
+    private final BookReservationService bookReservationService;
+    private final long retentionMillis;
+    private final int maxFinished;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    @Autowired
+    public ReservationTicketServiceImpl(BookReservationService bookReservationService,
+                                        @Value("${lab.reservations.tickets.retention-ms:600000}") long retentionMillis,
+                                        @Value("${lab.reservations.tickets.max-finished:100000}") int maxFinished) {
+        this(bookReservationService, retentionMillis, maxFinished, System::currentTimeMillis);
+    }
+
+    ReservationTicketServiceImpl(BookReservationService bookReservationService, long retentionMillis, int maxFinished,
+                                 LongSupplier clock) {
+        this.bookReservationService = bookReservationService;
+        this.retentionMillis = retentionMillis;
+        this.maxFinished = maxFinished;
+        this.clock = clock;
+    }
+
+    @Override
+    public ReservationTicket submit(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
+        evict(clock.getAsLong());
+        CompletableFuture<?> stored = bookReservationService.placeReservationAsync(bookTitle, readerName, readerAddress, numberOfCopies);
+        Entry entry = new Entry(new ReservationTicket(UUID.randomUUID().toString(), Status.PENDING,
+                bookTitle, readerName, numberOfCopies, null));
+        tickets.put(entry.pending.getId(), entry);
+        stored.whenComplete((reservation, failure) -> finish(entry, failure));
+        return entry.current();
+    }
+
+    @Override
+    public ReservationTicket findById(String id) {
+        return entry(id).current();
+    }
+
+    @Override
+    public CompletableFuture<ReservationTicket> completion(String id) {
+        return entry(id).done;
+    }
+
+    private Entry entry(String id) {
+        evict(clock.getAsLong());
+        Entry entry = tickets.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("Reservation not found");
+        }
+        return entry;
+    }
+
+    private void finish(Entry entry, Throwable failure) {
+        ReservationTicket ticket = failure == null
+                ? entry.pending.withStatus(Status.CONFIRMED)
+                : entry.pending.withStatus(Status.REJECTED).withError(reason(failure));
+        long now = clock.getAsLong();
+        entry.finishedAt = now;
+        finished.add(entry);
+        finishedCount.incrementAndGet();
+        entry.done.complete(ticket);
+        evict(now);
+    }
+
+    private void evict(long now) {
+        for (Entry oldest = finished.peek(); oldest != null; oldest = finished.peek()) {
+            if (finishedCount.get() <= maxFinished && now - oldest.finishedAt < retentionMillis) {
+                return;
+            }
+            if (finished.remove(oldest)) {
+                finishedCount.decrementAndGet();
+                tickets.remove(oldest.pending.getId(), oldest);
+            }
+        }
+    }
+
+    private static String reason(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+    }
+
+    private static final class Entry {
+        final ReservationTicket pending;
+        final CompletableFuture<ReservationTicket> done = new CompletableFuture<>();
+        volatile long finishedAt;
+
+        Entry(ReservationTicket pending) {
+            this.pending = pending;
+        }
+
+        ReservationTicket current() {
+            return done.getNow(pending);
+        }
+    }
+}
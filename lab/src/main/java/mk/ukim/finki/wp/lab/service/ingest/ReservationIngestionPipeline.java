@@ -0,0 +1,164 @@
+package mk.ukim.finki.wp.lab.service.ingest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Bounded hand-off between request threads and the reservation repository. A single consumer
+// drains the queue in batches (up to batchSize, waiting at most lingerMillis for a batch to fill)
+// and stores each batch with one saveAll call. Listeners hear about stored batches on that same
+// thread, after the waiting requests have been completed. Whatever is still queued when the
+// consumer stops is failed, so no caller is left waiting on a future nobody will complete. A caller
+// that gives up waiting can withdraw a reservation the consumer hasn't taken yet.
+@Component
+public class ReservationIngestionPipeline {
+    private final BookReservationRepository bookReservationRepository;
+    private final List<ReservationListener> listeners;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public ReservationIngestionPipeline(BookReservationRepository bookReservationRepository,
+                                        List<ReservationListener> listeners,
+                                        @Value("${lab.reservations.ingest.queue-capacity:10000}") int queueCapacity,
+                                        @Value("${lab.reservations.ingest.batch-size:256}") int batchSize,
+                                        @Value("${lab.reservations.ingest.linger-ms:2}") long lingerMillis) {
+        this.bookReservationRepository = bookReservationRepository;
+        this.listeners = List.copyOf(listeners);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.consumer = new Thread(this::drainLoop, "reservation-ingest");
+        this.consumer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        consumer.start();
+    }
+
+    public CompletableFuture<BookReservation> submit(BookReservation reservation) {
+        if (!running) {
+            throw new IllegalStateException("Reservation pipeline is shutting down");
+        }
+        Pending pending = new Pending(reservation, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ReservationQueueFullException();
+        }
+        // Lost a race with stop(): the consumer may already have made its final pass over the queue
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Reservation pipeline is shutting down");
+        }
+        return pending.future;
+    }
+
+    // Takes the reservation (by identity) off the queue and fails its future with a CancellationException.
+    // False once the consumer has taken it: from then on it is stored or fails like any other.
+    public boolean withdraw(BookReservation reservation) {
+        for (Pending pending : queue) {
+            if (pending.reservation == reservation) {
+                if (!queue.remove(pending)) {
+                    return false;
+                }
+                pending.future.completeExceptionally(new CancellationException("Reservation withdrawn before it was stored"));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    notifyListeners(ReservationListener::onIdle);
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            store(batch);
+            batch.clear();
+        }
+        running = false;
+        IllegalStateException stopped = new IllegalStateException("Reservation pipeline stopped");
+        for (Pending pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.future.completeExceptionally(stopped);
+        }
+    }
+
+    private void store(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BookReservation> reservations = batch.stream().map(Pending::reservation).toList();
+        try {
+            bookReservationRepository.saveAll(reservations);
+        } catch (Throwable e) {
+            // Errors too: the consumer has to outlive a failed batch, or every later request waits forever
+            batch.forEach(p -> p.future.completeExceptionally(e));
+            if (!(e instanceof RuntimeException)) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            return;
+        }
+        batch.forEach(p -> p.future.complete(p.reservation));
+        notifyListeners(listener -> listener.onStored(reservations));
+    }
+
+    // A failing listener is reported but must not stop the consumer thread
+    private void notifyListeners(Consumer<ReservationListener> event) {
+        for (ReservationListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Pending(BookReservation reservation, CompletableFuture<BookReservation> future) {
+    }
+}
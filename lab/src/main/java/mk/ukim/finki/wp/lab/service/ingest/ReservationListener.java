@@ -0,0 +1,14 @@
+package mk.ukim.finki.wp.lab.service.ingest;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+
+import java.util.List;
+
+// Called by ReservationIngestionPipeline on its consumer thread only, so implementations see
+// one writer. onStored gets every batch after it was saved; onIdle runs when the queue stays empty.
+public interface ReservationListener {
+    void onStored(List<BookReservation> reservations);
+
+    default void onIdle() {
+    }
+}
@@ -0,0 +1,136 @@
+package mk.ukim.finki.wp.lab.service.support;
+
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookFacets;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Genre, author and rating-band counts for the whole catalog, kept in LongAdders and moved on
+// every write instead of recounted on every read. Writes to one book id are serialized on a
+// lock stripe so the book being replaced is read and uncounted exactly once. Bulk imports
+// bypass the service and call rebuild() afterwards, which recounts under all stripes.
+@Component
+public class CatalogFacets {
+    private static final int LOCK_STRIPES = 64;
+
+    private final BookRepository bookRepository;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private volatile Counts counts;
+
+    public CatalogFacets(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.counts = Counts.of(bookRepository.stream());
+    }
+
+    // Runs write, which stores (or deletes, returning null) the book with this id, and moves the
+    // counts from the previously stored version to the returned one
+    public Book track(Long id, Supplier<Book> write) {
+        if (id == null) {
+            return write.get();
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Book previous = bookRepository.findById(id).orElse(null);
+            Book next = write.get();
+            Counts current = counts;
+            if (previous != null) {
+                current.add(previous, -1);
+            }
+            if (next != null) {
+                current.add(next, 1);
+            }
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void rebuild() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            counts = Counts.of(bookRepository.stream());
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // O(number of genres + authors); counts written concurrently may or may not be included
+    public BookFacets snapshot() {
+        return counts.snapshot();
+    }
+
+    // Facets of an already fetched result set, in one pass over it
+    public static BookFacets of(Collection<Book> books) {
+        return Counts.of(books.stream()).snapshot();
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id ^ (id >>> 32)) & (LOCK_STRIPES - 1)];
+    }
+
+    private static final class Counts {
+        final LongAdder total = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> genres = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, LongAdder> authors = new ConcurrentHashMap<>();
+        final LongAdder[] ratingBands = new LongAdder[BookFacets.RATING_BANDS];
+
+        Counts() {
+            for (int i = 0; i < ratingBands.length; i++) {
+                ratingBands[i] = new LongAdder();
+            }
+        }
+
+        static Counts of(Stream<Book> books) {
+            Counts counts = new Counts();
+            books.forEach(book -> counts.add(book, 1));
+            return counts;
+        }
+
+        void add(Book book, int delta) {
+            total.add(delta);
+            if (book.getGenre() != null) {
+                genres.computeIfAbsent(book.getGenre(), g -> new LongAdder()).add(delta);
+            }
+            if (book.getAuthor() != null && book.getAuthor().getId() != null) {
+                authors.computeIfAbsent(book.getAuthor().getId(), a -> new LongAdder()).add(delta);
+            }
+            ratingBands[BookFacets.ratingBand(book.getAverageRating())].add(delta);
+        }
+
+        BookFacets snapshot() {
+            long[] bands = new long[ratingBands.length];
+            for (int i = 0; i < bands.length; i++) {
+                bands[i] = ratingBands[i].sum();
+            }
+            return new BookFacets(total.sum(), sortedCounts(genres), sortedCounts(authors), bands);
+        }
+
+        private static <K> Map<K, Long> sortedCounts(Map<K, LongAdder> adders) {
+            Map<K, Long> result = new LinkedHashMap<>();
+            adders.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                    .filter(e -> e.getValue() > 0)
+                    .sorted(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()))
+                    .forEach(e -> result.put(e.getKey(), e.getValue()));
+            return result;
+        }
+    }
+}
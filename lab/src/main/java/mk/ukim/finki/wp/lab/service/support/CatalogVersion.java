@@ -0,0 +1,20 @@
+package mk.ukim.finki.wp.lab.service.support;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic counter bumped on every catalog write; anything derived from the catalog
+// (rendered pages, ETags) is valid only for the version it was built from.
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+}
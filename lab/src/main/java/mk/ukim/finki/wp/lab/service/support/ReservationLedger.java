@@ -0,0 +1,81 @@
+package mk.ukim.finki.wp.lab.service.support;
+
+import jakarta.annotation.PostConstruct;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookRepository;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.service.BookInventoryService;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Copies each reader still holds per title: stored reservations minus stored returns (returns are
+// reservations with negative copies). Returns are checked against it so a reader can't give back
+// more than they took. On startup it is replayed from the reservation store, and the inventory of
+// every title is reduced by the copies still out, so stock survives restarts with a durable store.
+@Component
+public class ReservationLedger {
+    private final BookReservationRepository bookReservationRepository;
+    private final BookRepository bookRepository;
+    private final BookInventoryService bookInventoryService;
+    private final ConcurrentHashMap<String, AtomicLong> outstanding = new ConcurrentHashMap<>();
+
+    public ReservationLedger(BookReservationRepository bookReservationRepository, BookRepository bookRepository,
+                             BookInventoryService bookInventoryService) {
+        this.bookReservationRepository = bookReservationRepository;
+        this.bookRepository = bookRepository;
+        this.bookInventoryService = bookInventoryService;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<String, Long> perTitle = new HashMap<>();
+        for (BookReservation reservation : bookReservationRepository.findAll()) {
+            Long copies = reservation.getNumberOfCopies();
+            if (reservation.getBookTitle() == null || reservation.getReaderName() == null || copies == null) {
+                continue;
+            }
+            counter(reservation.getBookTitle(), reservation.getReaderName()).addAndGet(copies);
+            perTitle.merge(reservation.getBookTitle(), copies, Long::sum);
+        }
+        perTitle.forEach((title, out) -> bookRepository.findByTitle(title).ifPresent(book ->
+                bookInventoryService.stock(book.getId(), Math.max(0, bookInventoryService.available(book.getId()) - out))));
+    }
+
+    public long outstanding(String bookTitle, String readerName) {
+        AtomicLong counter = outstanding.get(key(bookTitle, readerName));
+        return counter == null ? 0 : counter.get();
+    }
+
+    public void reserved(String bookTitle, String readerName, long copies) {
+        counter(bookTitle, readerName).addAndGet(copies);
+    }
+
+    // Takes copies off the reader's balance if they hold that many; undo with reserved()
+    public boolean tryReturn(String bookTitle, String readerName, long copies) {
+        AtomicLong counter = outstanding.get(key(bookTitle, readerName));
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            long current = counter.get();
+            if (current < copies) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - copies)) {
+                return true;
+            }
+        }
+    }
+
+    private AtomicLong counter(String bookTitle, String readerName) {
+        return outstanding.computeIfAbsent(key(bookTitle, readerName), k -> new AtomicLong());
+    }
+
+    private static String key(String bookTitle, String readerName) {
+        return bookTitle + '\u0000' + readerName;
+    }
+}
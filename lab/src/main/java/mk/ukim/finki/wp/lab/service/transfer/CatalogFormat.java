@@ -0,0 +1,36 @@
+package mk.ukim.finki.wp.lab.service.transfer;
+
+import java.util.Locale;
+
+// Line-oriented catalog file formats; every record is exactly one line
+public enum CatalogFormat {
+    CSV("text/csv", "csv"),
+    JSONL("application/x-ndjson", "jsonl");
+
+    private final String contentType;
+    private final String extension;
+
+    CatalogFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static CatalogFormat from(String name) {
+        if (name != null) {
+            for (CatalogFormat format : values()) {
+                if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog format: " + name);
+    }
+}
@@ -0,0 +1,178 @@
+package mk.ukim.finki.wp.lab.service.transfer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+// Reads and writes single catalog lines: id,title,genre,averageRating,authorId.
+// Lines are parsed straight from the byte range they occupy, without decoding the whole line.
+public final class CatalogRecords {
+    public static final String CSV_HEADER = "id,title,genre,averageRating,authorId";
+    private static final byte[] CSV_HEADER_BYTES = CSV_HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private CatalogRecords() {
+    }
+
+    public static boolean isCsvHeader(byte[] data, int from, int to) {
+        return to - from >= CSV_HEADER_BYTES.length
+                && Arrays.equals(data, from, from + CSV_HEADER_BYTES.length, CSV_HEADER_BYTES, 0, CSV_HEADER_BYTES.length);
+    }
+
+    // Null when the line is malformed or its author is unknown. A missing id is taken from ids.
+    public static Book parse(CatalogFormat format, byte[] data, int from, int to,
+                             LongFunction<Author> authors, LongSupplier ids) {
+        try {
+            Row row = format == CatalogFormat.CSV ? parseCsv(data, from, to) : parseJson(data, from, to);
+            if (row == null || row.title == null || row.authorId == null) {
+                return null;
+            }
+            Author author = authors.apply(row.authorId);
+            if (author == null) {
+                return null;
+            }
+            long id = row.id != null ? row.id : ids.getAsLong();
+            return new Book(row.title, row.genre, row.rating, id, author, 0L);
+        } catch (NumberFormatException | IOException e) {
+            return null;
+        }
+    }
+
+    private static Row parseCsv(byte[] data, int from, int to) {
+        String[] fields = new String[5];
+        int field = 0;
+        int i = from;
+        while (i <= to && field < fields.length) {
+            if (i < to && data[i] == '"') {
+                StringBuilder value = new StringBuilder();
+                int start = ++i;
+                while (i < to) {
+                    if (data[i] == '"') {
+                        value.append(new String(data, start, i - start, StandardCharsets.UTF_8));
+                        if (i + 1 < to && data[i + 1] == '"') {
+                            value.append('"');
+                            i += 2;
+                            start = i;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                if (i >= to) {
+                    return null;
+                }
+                fields[field++] = value.toString();
+                i++;
+                if (i < to && data[i] != ',') {
+                    return null;
+                }
+                i++;
+            } else {
+                int start = i;
+                while (i < to && data[i] != ',') {
+                    i++;
+                }
+                fields[field++] = new String(data, start, i - start, StandardCharsets.UTF_8);
+                i++;
+            }
+        }
+        if (field != fields.length || i <= to) {
+            return null;
+        }
+        return new Row(fields[0].isEmpty() ? null : Long.parseLong(fields[0]), fields[1], fields[2],
+                Double.parseDouble(fields[3]), fields[4].isEmpty() ? null : Long.parseLong(fields[4]));
+    }
+
+    private static Row parseJson(byte[] data, int from, int to) throws IOException {
+        try (JsonParser parser = JSON.createParser(data, from, to - from)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            Long id = null;
+            Long authorId = null;
+            String title = null;
+            String genre = null;
+            double rating = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (name) {
+                    case "id" -> id = parser.getLongValue();
+                    case "title" -> title = parser.getText();
+                    case "genre" -> genre = parser.getText();
+                    case "averageRating" -> rating = parser.getDoubleValue();
+                    case "authorId" -> authorId = parser.getLongValue();
+                    default -> parser.skipChildren();
+                }
+            }
+            return new Row(id, title, genre, rating, authorId);
+        }
+    }
+
+    public static void writeCsv(Writer out, Book book) throws IOException {
+        out.write(Long.toString(book.getId()));
+        out.write(',');
+        writeCsvField(out, book.getTitle());
+        out.write(',');
+        writeCsvField(out, book.getGenre());
+        out.write(',');
+        out.write(Double.toString(book.getAverageRating()));
+        out.write(',');
+        if (book.getAuthor() != null && book.getAuthor().getId() != null) {
+            out.write(Long.toString(book.getAuthor().getId()));
+        }
+        out.write('\n');
+    }
+
+    // Generator for one JSON object per line; the caller flushes it once at the end
+    public static JsonGenerator jsonGenerator(Writer out) throws IOException {
+        JsonGenerator json = JSON.createGenerator(out);
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    public static void writeJson(JsonGenerator json, Book book) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", book.getId());
+        json.writeStringField("title", book.getTitle());
+        json.writeStringField("genre", book.getGenre());
+        json.writeNumberField("averageRating", book.getAverageRating());
+        if (book.getAuthor() != null && book.getAuthor().getId() != null) {
+            json.writeNumberField("authorId", book.getAuthor().getId());
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // Records are one per line, so line breaks inside values are written as spaces
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String flat = value.replace('\r', ' ').replace('\n', ' ');
+        if (flat.indexOf(',') < 0 && flat.indexOf('"') < 0) {
+            out.write(flat);
+            return;
+        }
+        out.write('"');
+        out.write(flat.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private record Row(Long id, String title, String genre, double rating, Long authorId) {
+    }
+}
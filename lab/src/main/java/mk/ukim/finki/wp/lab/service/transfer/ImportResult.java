@@ -0,0 +1,5 @@
+package mk.ukim.finki.wp.lab.service.transfer;
+
+// Rows stored and rows skipped as malformed or pointing at an unknown author
+public record ImportResult(long imported, long rejected, long millis) {
+}
@@ -0,0 +1,86 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import java.util.Arrays;
+
+// Count-min sketch over 64-bit key hashes: depth rows of width counters, row i indexed by
+// h1 + i * h2. Estimates never undercount and overcount by at most total / width with
+// probability 1 - 2^-depth. Sketches of the same shape can be subtracted, which is how
+// expired window buckets are taken out of a running total.
+public class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Depth must be positive and width a power of two");
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new long[depth * width];
+    }
+
+    // Adds delta for the key and returns the key's new estimate
+    public long add(long hash, long delta) {
+        long estimate = Long.MAX_VALUE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            estimate = Math.min(estimate, counters[index] += delta);
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * (mask + 1) + ((h1 + row * h2) & mask)]);
+        }
+        return estimate;
+    }
+
+    public void subtract(CountMinSketch other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] -= other.counters[i];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    // 64-bit hash of every char of the key, four to a block with MurmurHash3's x64 mixing, then
+    // its finalizer. String.hashCode is only 32 bits and collides on short keys ("Aa" and "BB"),
+    // and a collision there would land two titles in the same cell of every row.
+    public static long hash(String key) {
+        long h = 0x9E3779B97F4A7C15L;
+        int length = key.length();
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = key.charAt(i) | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32 | (long) key.charAt(i + 3) << 48;
+            h ^= mixBlock(block);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) key.charAt(i) << shift;
+        }
+        h ^= mixBlock(tail);
+        h ^= length;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static long mixBlock(long block) {
+        block *= 0x87c37b91114253d5L;
+        block = Long.rotateLeft(block, 31);
+        return block * 0x4cf5ad432745937fL;
+    }
+}
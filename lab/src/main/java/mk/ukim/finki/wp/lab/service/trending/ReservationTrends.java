@@ -0,0 +1,85 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.service.ingest.ReservationListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Most-reserved books per sliding window, fed by the ingestion pipeline's consumer thread
+// after each batch is stored, so reservation requests never touch it. Memory is fixed by the
+// sketch shape and topK whatever the catalog size. Readers get the snapshot published after
+// the last batch or bucket expiry.
+@Component
+public class ReservationTrends implements ReservationListener {
+    private final Map<TrendWindow, SlidingTopK> windows = new EnumMap<>(TrendWindow.class);
+    private final LongSupplier clock;
+    private final int topK;
+    private volatile Map<TrendWindow, List<TrendingBook>> published;
+
+    @Autowired
+    public ReservationTrends(@Value("${lab.trending.sketch-depth:4}") int depth,
+                             @Value("${lab.trending.sketch-width:1024}") int width,
+                             @Value("${lab.trending.top-k:50}") int topK) {
+        this(depth, width, topK, System::currentTimeMillis);
+    }
+
+    ReservationTrends(int depth, int width, int topK, LongSupplier clock) {
+        this.clock = clock;
+        this.topK = topK;
+        long now = clock.getAsLong();
+        for (TrendWindow window : TrendWindow.values()) {
+            windows.put(window, new SlidingTopK(window, depth, width, topK, now));
+        }
+        publish();
+    }
+
+    @Override
+    public void onStored(List<BookReservation> reservations) {
+        long now = clock.getAsLong();
+        for (BookReservation reservation : reservations) {
+            if (reservation.getBookTitle() == null || reservation.getNumberOfCopies() == null
+                    || reservation.getNumberOfCopies() <= 0) {
+                continue;
+            }
+            long hash = CountMinSketch.hash(reservation.getBookTitle());
+            for (SlidingTopK window : windows.values()) {
+                window.add(reservation.getBookTitle(), hash, reservation.getNumberOfCopies(), now);
+            }
+        }
+        publish();
+    }
+
+    @Override
+    public void onIdle() {
+        long now = clock.getAsLong();
+        boolean expired = false;
+        for (SlidingTopK window : windows.values()) {
+            expired |= window.advance(now);
+        }
+        if (expired) {
+            publish();
+        }
+    }
+
+    public List<TrendingBook> top(TrendWindow window, int limit) {
+        List<TrendingBook> books = published.get(window);
+        return books.subList(0, Math.max(0, Math.min(limit, books.size())));
+    }
+
+    public int topK() {
+        return topK;
+    }
+
+    private void publish() {
+        Map<TrendWindow, List<TrendingBook>> snapshot = new EnumMap<>(TrendWindow.class);
+        windows.forEach((window, counter) -> snapshot.put(window, List.copyOf(counter.top())));
+        published = Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -0,0 +1,53 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import java.util.List;
+
+// Heavy hitters over one sliding window. Each bucket has its own sketch and a running sketch
+// holds their sum, so a key's window count is one estimate and expiring a bucket is one
+// subtraction. The heap tracks the keys with the largest window counts and is recounted
+// whenever buckets expire. Single writer only.
+class SlidingTopK {
+    private final TrendWindow window;
+    private final CountMinSketch[] buckets;
+    private final CountMinSketch total;
+    private final TopKHeap heap;
+    private long currentBucket;
+
+    SlidingTopK(TrendWindow window, int depth, int width, int topK, long now) {
+        this.window = window;
+        this.buckets = new CountMinSketch[window.buckets()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new CountMinSketch(depth, width);
+        }
+        this.total = new CountMinSketch(depth, width);
+        this.heap = new TopKHeap(topK);
+        this.currentBucket = now / window.bucketMillis();
+    }
+
+    void add(String key, long hash, long count, long now) {
+        advance(now);
+        buckets[(int) (currentBucket % buckets.length)].add(hash, count);
+        heap.offer(key, total.add(hash, count));
+    }
+
+    // Expires the buckets that fell out of the window; true if any did
+    boolean advance(long now) {
+        long bucket = now / window.bucketMillis();
+        if (bucket <= currentBucket) {
+            return false;
+        }
+        long expired = Math.min(bucket - currentBucket, buckets.length);
+        for (long i = 1; i <= expired; i++) {
+            CountMinSketch oldest = buckets[(int) ((currentBucket + i) % buckets.length)];
+            total.subtract(oldest);
+            oldest.clear();
+        }
+        currentBucket = bucket;
+        heap.recount(key -> total.estimate(CountMinSketch.hash(key)));
+        return true;
+    }
+
+    List<TrendingBook> top() {
+        return heap.descending();
+    }
+}
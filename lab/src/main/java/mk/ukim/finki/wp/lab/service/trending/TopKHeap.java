@@ -0,0 +1,117 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Indexed binary min-heap of at most capacity keys by count. A key already in the heap is
+// updated in place; a new key only gets in by beating the current minimum, which it evicts.
+public class TopKHeap {
+    private final String[] keys;
+    private final long[] counts;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    public TopKHeap(int capacity) {
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String key, long count) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            long previous = counts[position];
+            counts[position] = count;
+            if (count > previous) {
+                siftDown(position);
+            } else {
+                siftUp(position);
+            }
+        } else if (size < keys.length) {
+            place(size, key, count);
+            siftUp(size++);
+        } else if (count > counts[0]) {
+            positions.remove(keys[0]);
+            place(0, key, count);
+            siftDown(0);
+        }
+    }
+
+    // Replaces every count, dropping keys whose count fell to zero
+    public void recount(ToLongFunction<String> count) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            long updated = count.applyAsLong(keys[i]);
+            if (updated > 0) {
+                keys[kept] = keys[i];
+                counts[kept++] = updated;
+            } else {
+                positions.remove(keys[i]);
+            }
+        }
+        Arrays.fill(keys, kept, size, null);
+        size = kept;
+        for (int i = 0; i < size; i++) {
+            positions.put(keys[i], i);
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public List<TrendingBook> descending() {
+        List<TrendingBook> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new TrendingBook(keys[i], counts[i]));
+        }
+        result.sort((a, b) -> Long.compare(b.copies(), a.copies()));
+        return result;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        long count = counts[a];
+        place(a, keys[b], counts[b]);
+        place(b, key, count);
+    }
+
+    private void place(int position, String key, long count) {
+        keys[position] = key;
+        counts[position] = count;
+        positions.put(key, position);
+    }
+}
@@ -0,0 +1,35 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import java.util.concurrent.TimeUnit;
+
+// Sliding windows, each kept as a ring of buckets; the oldest bucket expires as a whole
+public enum TrendWindow {
+    MINUTE(TimeUnit.SECONDS.toMillis(5), 12),
+    HOUR(TimeUnit.MINUTES.toMillis(5), 12),
+    DAY(TimeUnit.HOURS.toMillis(1), 24);
+
+    private final long bucketMillis;
+    private final int buckets;
+
+    TrendWindow(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+    }
+
+    public long bucketMillis() {
+        return bucketMillis;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    public static TrendWindow from(String value) {
+        for (TrendWindow window : values()) {
+            if (window.name().equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window: " + value);
+    }
+}
@@ -0,0 +1,5 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+// Reserved copies of a book within a window; an estimate that may slightly overcount
+public record TrendingBook(String bookTitle, long copies) {
+}
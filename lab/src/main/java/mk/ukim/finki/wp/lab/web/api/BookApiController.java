@@ -0,0 +1,277 @@
+package mk.ukim.finki.wp.lab.web.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookFacets;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.BookSearchResult;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationTimeoutException;
+import mk.ukim.finki.wp.lab.service.BookReservationService;
+import mk.ukim.finki.wp.lab.service.BookService;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// JSON view of the catalog. Reads are tagged with a strong ETag built from the catalog version
+// and the request URI, so an unchanged catalog is answered with 304 before any lookup happens
+// (a single book is looked up first, so that a 404 goes out without a tag).
+// Bodies are streamed with a JsonGenerator and limited to the fields= projection. Listings are
+// gzipped here rather than by Tomcat, which won't compress responses carrying a strong ETag;
+// the gzipped representation gets its own ETag.
+@RestController
+@RequestMapping("/api")
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
+public class BookApiController {
+    private static final int GZIP_BUFFER_BYTES = 8 * 1024;
+
+    private final BookService bookService;
+    private final BookReservationService bookReservationService;
+    private final CatalogVersion catalogVersion;
+    private final WebMetrics webMetrics;
+    private final JsonFactory jsonFactory;
+
+    public BookApiController(BookService bookService, BookReservationService bookReservationService,
+                             CatalogVersion catalogVersion, WebMetrics webMetrics, ObjectMapper objectMapper) {
+        this.bookService = bookService;
+        this.bookReservationService = bookReservationService;
+        this.catalogVersion = catalogVersion;
+        this.webMetrics = webMetrics;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @GetMapping("/books")
+    public void listBooks(@RequestParam(required = false) Long after,
+                          @RequestParam(required = false) Integer size,
+                          @RequestParam(required = false) String fields,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(request);
+        if (notModified(request, response, gzip)) {
+            return;
+        }
+        BookFields projection = BookFields.parse(fields);
+        BookPage page = bookService.listPage(after, size);
+        try (JsonGenerator json = open(response, gzip)) {
+            json.writeStartObject();
+            writeBooks(json, "books", page.getBooks(), projection);
+            if (page.getNextCursor() != null) {
+                json.writeNumberField("nextCursor", page.getNextCursor());
+            }
+            json.writeNumberField("size", page.getSize());
+            json.writeEndObject();
+        }
+    }
+
+    @GetMapping("/books/search")
+    public void searchBooks(@RequestParam String title,
+                            @RequestParam Double rating,
+                            @RequestParam(required = false) Long after,
+                            @RequestParam(required = false) Integer size,
+                            @RequestParam(required = false) String fields,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(request);
+        if (notModified(request, response, gzip)) {
+            return;
+        }
+        BookFields projection = BookFields.parse(fields);
+        BookSearchResult result = bookService.searchBooksWithFacets(title, rating, after, size);
+        BookPage page = result.getPage();
+        try (JsonGenerator json = open(response, gzip)) {
+            json.writeStartObject();
+            writeBooks(json, "books", page.getBooks(), projection);
+            if (page.getNextCursor() != null) {
+                json.writeNumberField("nextCursor", page.getNextCursor());
+            }
+            json.writeNumberField("size", page.getSize());
+            json.writeFieldName("facets");
+            writeFacets(json, result.getFacets());
+            json.writeEndObject();
+        }
+    }
+
+    @GetMapping("/books/facets")
+    public void facets(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (notModified(request, response, false)) {
+            return;
+        }
+        try (JsonGenerator json = open(response, false)) {
+            writeFacets(json, bookService.facets());
+        }
+    }
+
+    @GetMapping("/books/{id}")
+    public void getBook(@PathVariable Long id,
+                        @RequestParam(required = false) String fields,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Taken before the lookup, so a concurrent write can only leave the tag older than the body
+        String etag = etag(request, false);
+        BookFields projection = BookFields.parse(fields);
+        Book book;
+        try {
+            book = bookService.findById(id);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            try (JsonGenerator json = open(response, false)) {
+                json.writeStartObject();
+                json.writeStringField("error", e.getMessage());
+                json.writeEndObject();
+            }
+            return;
+        }
+        if (notModified(request, response, etag)) {
+            return;
+        }
+        try (JsonGenerator json = open(response, false)) {
+            projection.write(json, book);
+        }
+    }
+
+    @PostMapping(value = "/reservations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookReservation> placeReservation(@RequestBody ReservationRequest reservation) {
+        try {
+            BookReservation placed = bookReservationService.placeReservation(reservation.bookTitle(),
+                    reservation.readerName(), reservation.readerAddress(), reservation.numberOfCopies());
+            webMetrics.reservationPlaced();
+            return ResponseEntity.status(HttpStatus.CREATED).body(placed);
+        } catch (IllegalArgumentException e) {
+            webMetrics.reservationInvalid();
+            throw e;
+        } catch (ReservationQueueFullException | ReservationTimeoutException e) {
+            webMetrics.reservationRejected();
+            throw e;
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(ReservationQueueFullException.class)
+    public ResponseEntity<Map<String, String>> queueFull(ReservationQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // The message tells the client whether the reservation was withdrawn or may still be stored
+    @ExceptionHandler(ReservationTimeoutException.class)
+    public ResponseEntity<Map<String, String>> timedOut(ReservationTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Sets the ETag for the current catalog version and reports whether the client already has it
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, boolean gzip) {
+        return notModified(request, response, etag(request, gzip));
+    }
+
+    private static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private String etag(HttpServletRequest request, boolean gzip) {
+        String uri = request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+        return "\"" + catalogVersion.current() + "-" + Integer.toHexString(uri.hashCode()) + (gzip ? "-gzip\"" : "\"");
+    }
+
+    // True if Accept-Encoding gives gzip, or failing that *, a non-zero q-value
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String accepted = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accepted == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : accepted.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        Double q = gzip != null ? gzip : any;
+        return q != null && q > 0;
+    }
+
+    private JsonGenerator open(HttpServletResponse response, boolean gzip) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return jsonFactory.createGenerator(new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_BYTES));
+        }
+        return jsonFactory.createGenerator(response.getOutputStream());
+    }
+
+    private static void writeBooks(JsonGenerator json, String name, List<Book> books, BookFields projection) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (Book book : books) {
+            projection.write(json, book);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeFacets(JsonGenerator json, BookFacets facets) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("total", facets.getTotal());
+        json.writeObjectFieldStart("genres");
+        for (Map.Entry<String, Long> genre : facets.getGenres().entrySet()) {
+            json.writeNumberField(genre.getKey(), genre.getValue());
+        }
+        json.writeEndObject();
+        json.writeObjectFieldStart("authors");
+        for (Map.Entry<Long, Long> author : facets.getAuthors().entrySet()) {
+            json.writeNumberField(author.getKey().toString(), author.getValue());
+        }
+        json.writeEndObject();
+        json.writeObjectFieldStart("ratings");
+        long[] bands = facets.getRatingBands();
+        for (int band = 0; band < bands.length; band++) {
+            json.writeNumberField(facets.ratingBandLabel(band), bands[band]);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    public record ReservationRequest(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
+    }
+}
@@ -0,0 +1,108 @@
+package mk.ukim.finki.wp.lab.web.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+
+import java.io.IOException;
+
+// Parsed fields= projection, e.g. "id,title,author.name". "author" alone selects every author
+// field; no projection selects everything. Books are written field by field, so nothing that
+// wasn't asked for is ever read or serialized.
+public final class BookFields {
+    public static final BookFields ALL = new BookFields(true, true, true, true, true, true, true, true, true, true, true);
+
+    private final boolean id;
+    private final boolean title;
+    private final boolean genre;
+    private final boolean averageRating;
+    private final boolean version;
+    private final boolean author;
+    private final boolean authorId;
+    private final boolean authorName;
+    private final boolean authorSurname;
+    private final boolean authorCountry;
+    private final boolean authorBiography;
+
+    private BookFields(boolean id, boolean title, boolean genre, boolean averageRating, boolean version, boolean author,
+                       boolean authorId, boolean authorName, boolean authorSurname, boolean authorCountry, boolean authorBiography) {
+        this.id = id;
+        this.title = title;
+        this.genre = genre;
+        this.averageRating = averageRating;
+        this.version = version;
+        this.author = author;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.authorSurname = authorSurname;
+        this.authorCountry = authorCountry;
+        this.authorBiography = authorBiography;
+    }
+
+    public static BookFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        boolean[] f = new boolean[11];
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            switch (field) {
+                case "id" -> f[0] = true;
+                case "title" -> f[1] = true;
+                case "genre" -> f[2] = true;
+                case "averageRating" -> f[3] = true;
+                case "version" -> f[4] = true;
+                case "author" -> f[5] = f[6] = f[7] = f[8] = f[9] = f[10] = true;
+                case "author.id" -> f[5] = f[6] = true;
+                case "author.name" -> f[5] = f[7] = true;
+                case "author.surname" -> f[5] = f[8] = true;
+                case "author.country" -> f[5] = f[9] = true;
+                case "author.biography" -> f[5] = f[10] = true;
+                case "" -> {
+                }
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return new BookFields(f[0], f[1], f[2], f[3], f[4], f[5], f[6], f[7], f[8], f[9], f[10]);
+    }
+
+    public void write(JsonGenerator json, Book book) throws IOException {
+        json.writeStartObject();
+        if (id) {
+            json.writeNumberField("id", book.getId());
+        }
+        if (title) {
+            json.writeStringField("title", book.getTitle());
+        }
+        if (genre) {
+            json.writeStringField("genre", book.getGenre());
+        }
+        if (averageRating) {
+            json.writeNumberField("averageRating", book.getAverageRating());
+        }
+        if (version) {
+            json.writeNumberField("version", book.getVersion());
+        }
+        if (author && book.getAuthor() != null) {
+            Author a = book.getAuthor();
+            json.writeObjectFieldStart("author");
+            if (authorId) {
+                json.writeNumberField("id", a.getId());
+            }
+            if (authorName) {
+                json.writeStringField("name", a.getName());
+            }
+            if (authorSurname) {
+                json.writeStringField("surname", a.getSurname());
+            }
+            if (authorCountry) {
+                json.writeStringField("country", a.getCountry());
+            }
+            if (authorBiography) {
+                json.writeStringField("biography", a.getBiography());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,116 @@
+package mk.ukim.finki.wp.lab.web.api;
+
+import io.micrometer.core.annotation.Timed;
+import mk.ukim.finki.wp.lab.model.ReservationTicket;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.service.ReservationTicketService;
+import mk.ukim.finki.wp.lab.web.api.BookApiController.ReservationRequest;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Asynchronous reservations: POST answers 202 with a ticket as soon as the reservation is
+// queued, and GET returns the ticket's status. With wait=N (seconds) the GET is held open
+// until the ticket is confirmed or rejected, without occupying a request thread.
+@RestController
+@RequestMapping("/api")
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
+public class ReservationTicketController {
+    private final ReservationTicketService reservationTicketService;
+    private final WebMetrics webMetrics;
+    private final long maxWaitMillis;
+
+    public ReservationTicketController(ReservationTicketService reservationTicketService, WebMetrics webMetrics,
+                                       @Value("${lab.reservations.tickets.max-wait-ms:30000}") long maxWaitMillis) {
+        this.reservationTicketService = reservationTicketService;
+        this.webMetrics = webMetrics;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @PostMapping(value = "/reservations/async", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReservationTicket> submit(@RequestBody ReservationRequest reservation) {
+        ReservationTicket ticket;
+        try {
+            ticket = reservationTicketService.submit(reservation.bookTitle(), reservation.readerName(),
+                    reservation.readerAddress(), reservation.numberOfCopies());
+        } catch (IllegalArgumentException e) {
+            webMetrics.reservationInvalid();
+            throw e;
+        } catch (ReservationQueueFullException e) {
+            webMetrics.reservationRejected();
+            throw e;
+        }
+        reservationTicketService.completion(ticket.getId()).thenAccept(done -> {
+            if (done.getStatus() == ReservationTicket.Status.CONFIRMED) {
+                webMetrics.reservationPlaced();
+            } else {
+                webMetrics.reservationRejected();
+            }
+        });
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reservations/" + ticket.getId()))
+                .body(ticket);
+    }
+
+    @GetMapping("/reservations/{id}")
+    public DeferredResult<ResponseEntity<?>> status(@PathVariable String id,
+                                                    @RequestParam(defaultValue = "0") long wait) {
+        long waitMillis = Math.min(TimeUnit.SECONDS.toMillis(Math.max(0, wait)), maxWaitMillis);
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(waitMillis > 0 ? waitMillis : null,
+                () -> currentStatus(id));
+        CompletableFuture<ReservationTicket> completion;
+        try {
+            completion = reservationTicketService.completion(id);
+        } catch (IllegalArgumentException e) {
+            result.setResult(notFound(e));
+            return result;
+        }
+        if (waitMillis == 0 || completion.isDone()) {
+            result.setResult(currentStatus(id));
+        } else {
+            completion.thenAccept(ticket -> result.setResult(ResponseEntity.ok(ticket)));
+        }
+        return result;
+    }
+
+    private ResponseEntity<?> currentStatus(String id) {
+        try {
+            return ResponseEntity.ok(reservationTicketService.findById(id));
+        } catch (IllegalArgumentException e) {
+            return notFound(e);
+        }
+    }
+
+    private static ResponseEntity<?> notFound(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(ReservationQueueFullException.class)
+    public ResponseEntity<Map<String, String>> queueFull(ReservationQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,46 @@
+package mk.ukim.finki.wp.lab.web.api;
+
+import io.micrometer.core.annotation.Timed;
+import mk.ukim.finki.wp.lab.service.trending.ReservationTrends;
+import mk.ukim.finki.wp.lab.service.trending.TrendWindow;
+import mk.ukim.finki.wp.lab.service.trending.TrendingBook;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+// Most-reserved books over the last minute, hour or day
+@RestController
+@RequestMapping("/api")
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
+public class TrendingApiController {
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final ReservationTrends reservationTrends;
+
+    public TrendingApiController(ReservationTrends reservationTrends) {
+        this.reservationTrends = reservationTrends;
+    }
+
+    @GetMapping("/trending")
+    public Trending trending(@RequestParam(defaultValue = "hour") String window,
+                             @RequestParam(required = false) Integer limit) {
+        TrendWindow trendWindow = TrendWindow.from(window);
+        int n = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(reservationTrends.topK(), limit));
+        return new Trending(trendWindow.name().toLowerCase(), reservationTrends.top(trendWindow, n));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    public record Trending(String window, List<TrendingBook> books) {
+    }
+}
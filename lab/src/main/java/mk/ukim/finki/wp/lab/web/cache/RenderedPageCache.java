@@ -0,0 +1,87 @@
+package mk.ukim.finki.wp.lab.web.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// LRU cache of rendered pages. Entries remember the catalog version they were rendered
+// from and are ignored (and later overwritten) once the catalog moves on.
+@Component
+public class RenderedPageCache {
+    private final int maxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedPage> pages;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public RenderedPageCache(@Value("${lab.page-cache.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest) {
+                return size() > RenderedPageCache.this.maxEntries;
+            }
+        };
+    }
+
+    public CachedPage get(String key, long version) {
+        CachedPage page;
+        lock.lock();
+        try {
+            page = pages.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (page != null && page.version() == version) {
+            hits.increment();
+            return page;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, CachedPage page) {
+        lock.lock();
+        try {
+            CachedPage existing = pages.get(key);
+            if (existing == null || existing.version() <= page.version()) {
+                pages.put(key, page);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long notModified() {
+        return notModified.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record CachedPage(long version, String contentType, byte[] body) {
+    }
+}
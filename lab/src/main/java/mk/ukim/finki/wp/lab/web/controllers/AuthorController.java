@@ -0,0 +1,42 @@
+package mk.ukim.finki.wp.lab.web.controllers;
+
+import io.micrometer.core.annotation.Timed;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.service.AuthorService;
+import mk.ukim.finki.wp.lab.service.BookService;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
+public class AuthorController {
+    private final AuthorService authorService;
+    private final BookService bookService;
+
+    public AuthorController(AuthorService authorService, BookService bookService) {
+        this.authorService = authorService;
+        this.bookService = bookService;
+    }
+
+    @GetMapping("/authors/{id}/books")
+    public String getAuthorBooksPage(@PathVariable Long id,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Integer size,
+                                     Model model) {
+        try {
+            Author author = authorService.findById(id);
+            BookPage page = bookService.listPageByAuthor(id, after, size);
+            model.addAttribute("author", author);
+            model.addAttribute("books", page.getBooks());
+            model.addAttribute("page", page);
+            return "authorBooks";
+        } catch (IllegalArgumentException e) {
+            return "redirect:/books?error=AuthorNotFound";
+        }
+    }
+}
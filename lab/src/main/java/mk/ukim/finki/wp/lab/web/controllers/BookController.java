@@ -1,9 +1,13 @@
 package mk.ukim.finki.wp.lab.web.controllers;
 
+import io.micrometer.core.annotation.Timed;
 import mk.ukim.finki.wp.lab.model.Author;
 import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
 import mk.ukim.finki.wp.lab.service.AuthorService;
 import mk.ukim.finki.wp.lab.service.BookService;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,9 +15,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
-
 @Controller
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
 public class BookController {
     private final BookService bookService;
     private final AuthorService authorService;
@@ -23,12 +26,17 @@ public class BookController {
         this.authorService = authorService;
     }
     @GetMapping("/books")
-    public String getBooksPage(@RequestParam(required = false) String error, Model model) {
+    public String getBooksPage(@RequestParam(required = false) String error,
+                               @RequestParam(required = false) Long after,
+                               @RequestParam(required = false) Integer size,
+                               Model model) {
         if (error != null) {
             model.addAttribute("error", error);
         }
-        List<Book> books = bookService.listAll();
-        model.addAttribute("books", books);
+        BookPage page = bookService.listPage(after, size);
+        model.addAttribute("books", page.getBooks());
+        model.addAttribute("page", page);
+        model.addAttribute("facets", bookService.facets());
         return "listBooks";
     }
 
@@ -59,27 +67,25 @@ public class BookController {
 
     @PostMapping("/books/save")
     public String saveBook(@RequestParam(required = false) Long id,
+                           @RequestParam(defaultValue = "0") long version,
                            @RequestParam String title,
                            @RequestParam String genre,
                            @RequestParam double averageRating,
                            @RequestParam Long authorId, Model model) {
-        Author author = authorService.findAll().stream()
-                .filter(a -> a.getId().equals(authorId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Author not found"));
+        Author author = authorService.findById(authorId);
 
-        Book book;
         if (id != null) {
-            // Update existing book
-            book = bookService.findById(id);
-            book.setTitle(title);
-            book.setGenre(genre);
-            book.setAverageRating(averageRating);
-            book.setAuthor(author);
+            // Update existing book, only if nobody changed it since the form was loaded
+            try {
+                bookService.update(new Book(title, genre, averageRating, id, author, version));
+            } catch (BookVersionConflictException e) {
+                return "redirect:/books?error=BookWasModified";
+            } catch (IllegalArgumentException e) {
+                return "redirect:/books?error=BookNotFound";
+            }
         } else {
             // Add new book
-            book = new Book(title, genre, averageRating, author);
-            bookService.save(book); // Ensure the new book is saved
+            bookService.save(new Book(title, genre, averageRating, author));
         }
         return "redirect:/books";
     }
@@ -1,24 +1,32 @@
 package mk.ukim.finki.wp.lab.web.controllers;
 
+import io.micrometer.core.annotation.Timed;
 import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationTimeoutException;
 import mk.ukim.finki.wp.lab.service.BookReservationService;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import mk.ukim.finki.wp.lab.web.session.ReservationHistory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
-import java.util.ArrayList;
-import java.util.List;
 
 @Controller
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
 public class BookReservationController {
 
     private final BookReservationService bookReservationService;
+    private final WebMetrics webMetrics;
 
-    public BookReservationController(BookReservationService bookReservationService) {
+    public BookReservationController(BookReservationService bookReservationService, WebMetrics webMetrics) {
         this.bookReservationService = bookReservationService;
+        this.webMetrics = webMetrics;
     }
 
     @PostMapping("/bookReservation")
@@ -27,6 +35,7 @@ public class BookReservationController {
                                     @RequestParam String readerAddress,
                                     @RequestParam int numCopies,
                                     HttpServletRequest request,
+                                    HttpServletResponse response,
                                     Model model) {
         // Get client IP address
         String ipAddress = request.getRemoteAddr();
@@ -34,18 +43,17 @@ public class BookReservationController {
         try {
             // Create reservation using the service
             bookReservationService.placeReservation(chosenBook, readerName, readerAddress, numCopies);
+            webMetrics.reservationPlaced();
 
             // Create a new reservation object
             BookReservation reservation = new BookReservation(chosenBook, readerName, readerAddress, (long) numCopies);
 
-            // Store the reservation in the session
+            // Store the reservation in the session, setting the attribute again so session stores
+            // that only save or replicate attributes on setAttribute see the changed history
             HttpSession session = request.getSession();
-            List<BookReservation> reservations = (List<BookReservation>) session.getAttribute("reservations");
-            if (reservations == null) {
-                reservations = new ArrayList<>();
-                session.setAttribute("reservations", reservations);
-            }
-            reservations.add(reservation);
+            ReservationHistory history = ReservationHistory.of(session);
+            history.add(reservation);
+            session.setAttribute(ReservationHistory.SESSION_ATTRIBUTE, history);
 
             // Add reservation details to the model
             model.addAttribute("readerName", readerName);
@@ -56,9 +64,27 @@ public class BookReservationController {
 
             // Display the confirmation page
             return "reservationConfirmation";
+        } catch (ReservationQueueFullException | ReservationTimeoutException e) {
+            webMetrics.reservationRejected();
+            // Same hint as the servlet and API paths; the 429 or 503 itself comes from the exception's @ResponseStatus
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            throw e;
         } catch (IllegalArgumentException e) {
+            webMetrics.reservationInvalid();
             // Redirect to the homepage with an error message if invalid arguments are provided
             return "redirect:/?error=Invalid arguments!";
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/bookReservation/return")
+    public String returnCopies(@RequestParam String chosenBook,
+                               @RequestParam String readerName,
+                               @RequestParam int numCopies) {
+        try {
+            bookReservationService.returnCopies(chosenBook, readerName, numCopies);
+            return "redirect:/";
+        } catch (IllegalArgumentException e) {
+            return "redirect:/?error=Nothing to return!";
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package mk.ukim.finki.wp.lab.web.controllers;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mk.ukim.finki.wp.lab.service.CatalogTransferService;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import mk.ukim.finki.wp.lab.service.transfer.ImportResult;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+// Bulk catalog transfer. The request body is the file itself
+// (curl -H 'Content-Type: text/csv' --data-binary @books.csv), so uploads stream straight into
+// the importer. Form content types are refused: the container would consume a form body as
+// request parameters before the importer could read it.
+@Controller
+@Timed(value = WebMetrics.ENDPOINT_TIMER, histogram = true)
+public class CatalogTransferController {
+    private final CatalogTransferService catalogTransferService;
+
+    public CatalogTransferController(CatalogTransferService catalogTransferService) {
+        this.catalogTransferService = catalogTransferService;
+    }
+
+    @PostMapping(value = "/books/import", consumes = {"text/csv", "application/x-ndjson", "text/plain", "application/octet-stream"})
+    @ResponseBody
+    public ImportResult importBooks(@RequestParam(required = false) String format,
+                                    HttpServletRequest request) throws IOException {
+        CatalogFormat catalogFormat = format != null ? CatalogFormat.from(format)
+                : request.getContentType().startsWith(CatalogFormat.JSONL.contentType()) ? CatalogFormat.JSONL : CatalogFormat.CSV;
+        return catalogTransferService.importBooks(Channels.newChannel(request.getInputStream()), catalogFormat);
+    }
+
+    @GetMapping("/books/export")
+    public void exportBooks(@RequestParam(defaultValue = "csv") String format,
+                            HttpServletResponse response) throws IOException {
+        CatalogFormat catalogFormat = CatalogFormat.from(format);
+        response.setContentType(catalogFormat.contentType() + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"books." + catalogFormat.extension() + "\"");
+        catalogTransferService.exportBooks(Channels.newChannel(response.getOutputStream()), catalogFormat);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+}
@@ -0,0 +1,82 @@
+package mk.ukim.finki.wp.lab.web.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import mk.ukim.finki.wp.lab.web.ratelimit.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Per-client-IP token buckets in front of the reservation and search endpoints. Each route
+// has its own limiter; everything else passes straight through. Over the limit the request
+// is answered with 429 and Retry-After (whole seconds, rounded up) without reaching the handler.
+@WebFilter(filterName = "RateLimitFilter", asyncSupported = true,
+        urlPatterns = {"", "/books", "/bookReservation", "/bookReservation/return", "/api/books/search", "/api/reservations", "/api/reservations/async"})
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final TokenBucketLimiter reservations;
+    private final TokenBucketLimiter search;
+    private final WebMetrics webMetrics;
+
+    public RateLimitFilter(@Value("${lab.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${lab.rate-limit.max-clients:100000}") int maxClients,
+                           @Value("${lab.rate-limit.reservations.per-second:5}") double reservationRate,
+                           @Value("${lab.rate-limit.reservations.burst:20}") int reservationBurst,
+                           @Value("${lab.rate-limit.search.per-second:20}") double searchRate,
+                           @Value("${lab.rate-limit.search.burst:50}") int searchBurst,
+                           WebMetrics webMetrics) {
+        this.enabled = enabled;
+        this.reservations = new TokenBucketLimiter(reservationRate, reservationBurst, maxClients);
+        this.search = new TokenBucketLimiter(searchRate, searchBurst, maxClients);
+        this.webMetrics = webMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String route = route(request);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        TokenBucketLimiter limiter = route.equals("reservations") ? reservations : search;
+        long waitNanos = limiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        webMetrics.rateLimited(route);
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.sendError(429, "Too many requests");
+    }
+
+    // Null for requests that aren't limited. Listing pages are only limited when they search.
+    private static String route(HttpServletRequest request) {
+        String path = request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+        boolean post = "POST".equals(request.getMethod());
+        return switch (path) {
+            case "/bookReservation", "/bookReservation/return", "/api/reservations", "/api/reservations/async" -> post ? "reservations" : null;
+            case "/api/books/search" -> "search";
+            case "", "/" -> post || isSearch(request) ? "search" : null;
+            case "/books" -> isSearch(request) ? "search" : null;
+            default -> null;
+        };
+    }
+
+    private static boolean isSearch(HttpServletRequest request) {
+        return request.getParameter("title") != null && request.getParameter("rating") != null;
+    }
+}
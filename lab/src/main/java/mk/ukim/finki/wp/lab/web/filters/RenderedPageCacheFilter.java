@@ -0,0 +1,94 @@
+package mk.ukim.finki.wp.lab.web.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import mk.ukim.finki.wp.lab.web.cache.RenderedPageCache;
+import mk.ukim.finki.wp.lab.web.cache.RenderedPageCache.CachedPage;
+import mk.ukim.finki.wp.lab.web.rendering.UnencodedResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+// Serves GET /books and the servlet root listing from RenderedPageCache while the catalog
+// version is unchanged, and answers If-None-Match with 304 for the current version.
+@WebFilter(filterName = "RenderedPageCacheFilter", urlPatterns = {"", "/books"})
+public class RenderedPageCacheFilter extends OncePerRequestFilter {
+    private static final String[] KEY_PARAMETERS = {"title", "rating", "after", "size", "error"};
+
+    private final RenderedPageCache renderedPageCache;
+    private final CatalogVersion catalogVersion;
+
+    public RenderedPageCacheFilter(RenderedPageCache renderedPageCache, CatalogVersion catalogVersion) {
+        this.renderedPageCache = renderedPageCache;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = "GET".equals(request.getMethod()) && !request.isRequestedSessionIdFromURL() ? cacheKey(request) : null;
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long version = catalogVersion.current();
+        String etag = etag(key, version);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            renderedPageCache.recordNotModified();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        CachedPage page = renderedPageCache.get(key, version);
+        if (page != null) {
+            response.setContentType(page.contentType());
+            response.setContentLength(page.body().length);
+            response.getOutputStream().write(page.body());
+            return;
+        }
+
+        // Rendered without URL rewriting: the bytes are shared, so one client's session id must not be in them
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(new UnencodedResponse(response));
+        chain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null) {
+            renderedPageCache.put(key, new CachedPage(version, wrapper.getContentType(), wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    // Path plus the parameters the listing depends on, normalized so equivalent URLs share an entry.
+    // Returns null for requests that shouldn't be cached (unparseable numbers end up as errors).
+    private static String cacheKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getServletPath().isEmpty() ? "/" : request.getServletPath());
+        for (String name : KEY_PARAMETERS) {
+            String value = request.getParameter(name);
+            if (value == null) {
+                continue;
+            }
+            value = value.trim();
+            try {
+                if (name.equals("rating")) {
+                    value = Double.toString(Double.parseDouble(value));
+                } else if (name.equals("after") || name.equals("size")) {
+                    value = Long.toString(Long.parseLong(value));
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            key.append('&').append(name).append('=').append(value);
+        }
+        return key.toString();
+    }
+
+    private static String etag(String key, long version) {
+        return "\"" + version + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+}
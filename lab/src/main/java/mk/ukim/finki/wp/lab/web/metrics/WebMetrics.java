@@ -0,0 +1,74 @@
+package mk.ukim.finki.wp.lab.web.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Meters recorded by hand from the web layer. Endpoint timers use the same name and tags
+// as the @Timed controllers so servlets and controllers end up in one metric family.
+@Component
+public class WebMetrics {
+    public static final String ENDPOINT_TIMER = "lab.endpoint";
+    public static final String RENDER_TIMER = "lab.template.render";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter reservationsPlaced;
+    private final Counter reservationsInvalid;
+    private final Counter reservationsRejected;
+
+    public WebMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.reservationsPlaced = reservationCounter("success");
+        this.reservationsInvalid = reservationCounter("invalid");
+        this.reservationsRejected = reservationCounter("rejected");
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopEndpoint(Timer.Sample sample, Class<?> handler, String method, Throwable failure) {
+        sample.stop(Timer.builder(ENDPOINT_TIMER)
+                .tag("class", handler.getName())
+                .tag("method", method)
+                .tag("exception", failure == null ? "none" : failure.getClass().getSimpleName())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public void recordRender(String template, long nanos) {
+        Timer.builder(RENDER_TIMER)
+                .tag("template", template)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void reservationPlaced() {
+        reservationsPlaced.increment();
+    }
+
+    public void reservationInvalid() {
+        reservationsInvalid.increment();
+    }
+
+    public void reservationRejected() {
+        reservationsRejected.increment();
+    }
+
+    public void rateLimited(String route) {
+        Counter.builder("lab.rate-limit.rejected")
+                .tag("route", route)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter reservationCounter(String outcome) {
+        return Counter.builder("lab.reservations")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
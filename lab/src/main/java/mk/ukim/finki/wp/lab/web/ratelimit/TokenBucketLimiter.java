@@ -0,0 +1,98 @@
+package mk.ukim.finki.wp.lab.web.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets per client key, each stored as one AtomicLong in the GCRA form: the time at
+// which the bucket will be full again. Taking a token is a read and a CAS. A bucket whose
+// refill time has passed holds no information (a new bucket would be identical), so those are
+// the entries evicted when the map reaches maxClients. If every tracked client is active,
+// new clients share one overflow bucket instead of growing the map. A sweep walks the whole
+// map, so at most one runs per SWEEP_MIN_NANOS, on the request that wins the CAS for it;
+// meanwhile new clients of a full map go straight to the overflow bucket.
+public class TokenBucketLimiter {
+    private static final int SWEEP_INTERVAL = 1024;
+    private static final long SWEEP_MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final long emissionNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger insertsSinceSweep = new AtomicInteger();
+    private final AtomicLong nextSweepAt;
+
+    public TokenBucketLimiter(double permitsPerSecond, int burst, int maxClients) {
+        this(permitsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double permitsPerSecond, int burst, int maxClients, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0 || maxClients <= 0) {
+            throw new IllegalArgumentException("Rate, burst and client limit must be positive");
+        }
+        this.emissionNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = emissionNanos * burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+        this.nextSweepAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    // 0 when a token was taken, otherwise how long to wait before the next one is available
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucketFor(client, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long next = start + emissionNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucketFor(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxClients || insertsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+            tryEvictIdle(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        // A sweep running concurrently may drop the new entry again; this request keeps using it
+        AtomicLong created = new AtomicLong(Long.MIN_VALUE);
+        bucket = buckets.putIfAbsent(client, created);
+        return bucket != null ? bucket : created;
+    }
+
+    private void tryEvictIdle(long now) {
+        long due = nextSweepAt.get();
+        if (now - due < 0 || !nextSweepAt.compareAndSet(due, now + SWEEP_MIN_NANOS)) {
+            return;
+        }
+        insertsSinceSweep.set(0);
+        for (Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, AtomicLong> entry = it.next();
+            long fullAt = entry.getValue().get();
+            if (fullAt == Long.MIN_VALUE || fullAt - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package mk.ukim.finki.wp.lab.web.rendering;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+import org.unbescape.html.HtmlEscape;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Single rendering entry point for servlets and controller views. The Thymeleaf web application
+// is built once, pages are rendered into pooled buffers and copied to the response in one write,
+// and the reservation confirmation page is assembled from pre-rendered static parts.
+@Component
+public class TemplateRenderer {
+    public static final String RESERVATION_CONFIRMATION = "reservationConfirmation";
+    private static final List<String> CONFIRMATION_SLOTS = List.of("readerName", "readerAddress", "bookTitle", "numCopies");
+    private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+    private static final int POOLED_BUFFERS = 64;
+    private static final int INITIAL_BUFFER_CHARS = 16 * 1024;
+    private static final int MAX_POOLED_BUFFER_CHARS = 512 * 1024;
+
+    private final SpringTemplateEngine templateEngine;
+    private final JakartaServletWebApplication application;
+    private final WebMetrics webMetrics;
+    private final ArrayBlockingQueue<RenderBuffer> buffers = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+    private volatile StaticTemplate confirmation;
+
+    public TemplateRenderer(SpringTemplateEngine templateEngine, ServletContext servletContext, WebMetrics webMetrics) {
+        this.templateEngine = templateEngine;
+        this.application = JakartaServletWebApplication.buildApplication(servletContext);
+        this.webMetrics = webMetrics;
+    }
+
+    public void render(String template, Map<String, ?> variables, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        long start = System.nanoTime();
+        if (resp.getContentType() == null) {
+            resp.setContentType(CONTENT_TYPE);
+        }
+        RenderBuffer buffer = borrow();
+        try {
+            if (RESERVATION_CONFIRMATION.equals(template)) {
+                confirmation(req, resp).writeTo(buffer, variables);
+            } else {
+                process(template, variables, req, resp, buffer);
+            }
+            buffer.writeTo(resp.getWriter());
+        } finally {
+            release(buffer);
+        }
+        webMetrics.recordRender(template, System.nanoTime() - start);
+    }
+
+    private void process(String template, Map<String, ?> variables, HttpServletRequest req, HttpServletResponse resp, Writer out) {
+        WebContext context = new WebContext(application.buildExchange(req, resp));
+        variables.forEach(context::setVariable);
+        templateEngine.process(template, context, out);
+    }
+
+    // Renders the confirmation page once with marker values and keeps the text around them.
+    // Links depend on the context path, so this waits for the first real request; URL rewriting
+    // is switched off so that request's session id doesn't end up in every later page.
+    private StaticTemplate confirmation(HttpServletRequest req, HttpServletResponse resp) {
+        StaticTemplate template = confirmation;
+        if (template == null) {
+            Map<String, Object> markers = new HashMap<>();
+            for (String slot : CONFIRMATION_SLOTS) {
+                markers.put(slot, marker(slot));
+            }
+            RenderBuffer out = new RenderBuffer(INITIAL_BUFFER_CHARS);
+            process(RESERVATION_CONFIRMATION, markers, req, new UnencodedResponse(resp), out);
+            template = StaticTemplate.split(out.toString(), CONFIRMATION_SLOTS);
+            confirmation = template;
+        }
+        return template;
+    }
+
+    private static String marker(String slot) {
+        return "@@lab-slot-" + slot + "@@";
+    }
+
+    private RenderBuffer borrow() {
+        RenderBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new RenderBuffer(INITIAL_BUFFER_CHARS);
+    }
+
+    private void release(RenderBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_CHARS) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    int pooledBuffers() {
+        return buffers.size();
+    }
+
+    // Static text interleaved with named slots whose values are HTML-escaped like th:text does
+    private record StaticTemplate(String[] parts, String[] slots) {
+
+        static StaticTemplate split(String rendered, List<String> slotNames) {
+            List<int[]> positions = new ArrayList<>();
+            for (int i = 0; i < slotNames.size(); i++) {
+                String marker = marker(slotNames.get(i));
+                int at = rendered.indexOf(marker);
+                if (at < 0 || rendered.indexOf(marker, at + 1) >= 0) {
+                    throw new IllegalStateException("Template must print " + slotNames.get(i) + " exactly once");
+                }
+                positions.add(new int[]{at, i});
+            }
+            positions.sort((a, b) -> Integer.compare(a[0], b[0]));
+            String[] parts = new String[positions.size() + 1];
+            String[] slots = new String[positions.size()];
+            int from = 0;
+            for (int i = 0; i < positions.size(); i++) {
+                int[] position = positions.get(i);
+                parts[i] = rendered.substring(from, position[0]);
+                slots[i] = slotNames.get(position[1]);
+                from = position[0] + marker(slots[i]).length();
+            }
+            parts[positions.size()] = rendered.substring(from);
+            return new StaticTemplate(parts, slots);
+        }
+
+        void writeTo(Writer out, Map<String, ?> variables) throws IOException {
+            for (int i = 0; i < slots.length; i++) {
+                out.write(parts[i]);
+                Object value = variables.get(slots[i]);
+                if (value != null) {
+                    out.write(HtmlEscape.escapeHtml4Xml(value.toString()));
+                }
+            }
+            out.write(parts[slots.length]);
+        }
+    }
+
+    // Unsynchronized growable char buffer; each one is used by a single request at a time
+    static final class RenderBuffer extends Writer {
+        private char[] chars;
+        private int length;
+
+        RenderBuffer(int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        @Override
+        public void write(int c) {
+            ensure(1);
+            chars[length++] = (char) c;
+        }
+
+        @Override
+        public void write(char[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, chars, length, count);
+            length += count;
+        }
+
+        @Override
+        public void write(String source, int offset, int count) {
+            ensure(count);
+            source.getChars(offset, offset + count, chars, length);
+            length += count;
+        }
+
+        void writeTo(Writer out) throws IOException {
+            out.write(chars, 0, length);
+        }
+
+        int capacity() {
+            return chars.length;
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > chars.length) {
+                char[] grown = new char[Math.max(chars.length * 2, length + extra)];
+                System.arraycopy(chars, 0, grown, 0, length);
+                chars = grown;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
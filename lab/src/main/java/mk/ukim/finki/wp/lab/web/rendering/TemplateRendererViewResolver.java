@@ -0,0 +1,40 @@
+package mk.ukim.finki.wp.lab.web.rendering;
+
+import org.springframework.boot.autoconfigure.template.TemplateAvailabilityProviders;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+
+import java.util.Locale;
+import java.util.Map;
+
+// Sends controller views that have a template through the shared TemplateRenderer. Redirects,
+// forwards and views without a template (such as Boot's "error" view) are left to the next resolver.
+@Component
+public class TemplateRendererViewResolver implements ViewResolver, Ordered {
+    private final TemplateRenderer templateRenderer;
+    private final ApplicationContext applicationContext;
+    private final TemplateAvailabilityProviders templateAvailabilityProviders;
+
+    public TemplateRendererViewResolver(TemplateRenderer templateRenderer, ApplicationContext applicationContext) {
+        this.templateRenderer = templateRenderer;
+        this.applicationContext = applicationContext;
+        this.templateAvailabilityProviders = new TemplateAvailabilityProviders(applicationContext);
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) {
+        if (viewName.startsWith("redirect:") || viewName.startsWith("forward:")
+                || templateAvailabilityProviders.getProvider(viewName, applicationContext) == null) {
+            return null;
+        }
+        return (model, request, response) -> templateRenderer.render(viewName, model == null ? Map.of() : model, request, response);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
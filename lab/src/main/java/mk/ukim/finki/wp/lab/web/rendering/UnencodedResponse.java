@@ -0,0 +1,22 @@
+package mk.ukim.finki.wp.lab.web.rendering;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Leaves links as written instead of appending ;jsessionid= for cookieless clients, for output
+// that is kept and served to other requests
+public class UnencodedResponse extends HttpServletResponseWrapper {
+    public UnencodedResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+}
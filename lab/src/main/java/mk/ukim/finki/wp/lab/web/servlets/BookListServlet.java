@@ -2,48 +2,62 @@ package mk.ukim.finki.wp.lab.web.servlets;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookPage;
+import mk.ukim.finki.wp.lab.model.BookSearchResult;
 import mk.ukim.finki.wp.lab.service.BookService;
-import org.apache.tomcat.Jar;
-import org.thymeleaf.context.WebContext;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-import org.thymeleaf.web.IWebExchange;
-import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import mk.ukim.finki.wp.lab.web.rendering.TemplateRenderer;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @WebServlet(name = "BookListServlet", urlPatterns = "")
-public class BookListServlet extends HttpServlet {
+public class BookListServlet extends MeteredHttpServlet {
     private final BookService bookService;
-    private final SpringTemplateEngine springTemplateEngine;
+    private final TemplateRenderer templateRenderer;
 
-    public BookListServlet(BookService bookService, SpringTemplateEngine springTemplateEngine) {
+    public BookListServlet(BookService bookService, TemplateRenderer templateRenderer, WebMetrics webMetrics) {
+        super(webMetrics);
         this.bookService = bookService;
-        this.springTemplateEngine = springTemplateEngine;
+        this.templateRenderer = templateRenderer;
     }
 
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        IWebExchange webExchange= JakartaServletWebApplication.buildApplication(getServletContext()).buildExchange(req,resp);
-        WebContext context=new WebContext(webExchange);
+        Map<String,Object> variables=new HashMap<>();
 
-        List<Book>books;
+        BookPage page;
+        Long after=parseLong(req.getParameter("after"));
+        Integer size=parseInt(req.getParameter("size"));
         String title=req.getParameter("title");
         String rating=req.getParameter("rating");
         if (title != null && rating!=null){
-            books=bookService.searchBooks(title,Double.parseDouble(rating));
+            BookSearchResult result=bookService.searchBooksWithFacets(title,Double.parseDouble(rating),after,size);
+            page=result.getPage();
+            variables.put("facets",result.getFacets());
+            variables.put("searchTitle",title);
+            variables.put("searchRating",rating);
         }
         else{
-            books=bookService.listAll();
+            page=bookService.listPage(after,size);
+            variables.put("facets",bookService.facets());
         }
-        context.setVariable("books",books);
-        context.setVariable("error",req.getParameter("error"));
-        springTemplateEngine.process("listBooks",context,resp.getWriter());
+        variables.put("page",page);
+        variables.put("books",page.getBooks());
+        variables.put("error",req.getParameter("error"));
+        templateRenderer.render("listBooks",variables,req,resp);
+    }
+
+    private static Long parseLong(String value) {
+        return value == null || value.isBlank() ? null : Long.parseLong(value);
+    }
+
+    private static Integer parseInt(String value) {
+        return value == null || value.isBlank() ? null : Integer.parseInt(value);
     }
 
     @Override
@@ -2,57 +2,44 @@ package mk.ukim.finki.wp.lab.web.servlets;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationTimeoutException;
 import mk.ukim.finki.wp.lab.service.BookReservationService;
-import org.thymeleaf.context.WebContext;
-import org.thymeleaf.spring6.SpringTemplateEngine;
-import org.thymeleaf.web.IWebExchange;
-import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import mk.ukim.finki.wp.lab.web.session.ReservationHistory;
+import mk.ukim.finki.wp.lab.web.rendering.TemplateRenderer;
+import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @WebServlet(name = "BookReservationServlet ", urlPatterns = "/bookReservation")
-public class BookReservationServlet extends HttpServlet {
-    private final SpringTemplateEngine springTemplateEngine;
+public class BookReservationServlet extends MeteredHttpServlet {
+    private final TemplateRenderer templateRenderer;
     private final BookReservationService bookReservationService;
 
-    public BookReservationServlet(SpringTemplateEngine springTemplateEngine, BookReservationService bookReservationService) {
-        this.springTemplateEngine = springTemplateEngine;
+    public BookReservationServlet(TemplateRenderer templateRenderer, BookReservationService bookReservationService, WebMetrics webMetrics) {
+        super(webMetrics);
+        this.templateRenderer = templateRenderer;
         this.bookReservationService = bookReservationService;
     }
 
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        IWebExchange webExchange = JakartaServletWebApplication.buildApplication(getServletContext()).buildExchange(req, resp);
-        WebContext context = new WebContext(webExchange);
-
-        // Retrieve the session and get the reservations
+        // Get the latest 3 reservations from the session, newest first
         var session = req.getSession();
-        List<BookReservation> reservations = (List<BookReservation>) session.getAttribute("reservations");
-        if (reservations != null) {
-            // Get the latest 3 reservations
-            List<BookReservation> latestReservations = reservations.stream()// Keep the order as added
-                    .limit(3)
-                    .toList();
-            context.setVariable("latestReservations", latestReservations);
-        }
-        else{
-            context.setVariable("latestReservations", List.of());
-        }
-        springTemplateEngine.process("listBooks", context, resp.getWriter());
+        templateRenderer.render("listBooks", Map.of("latestReservations", ReservationHistory.of(session).latest(3)), req, resp);
 
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        IWebExchange webExchange= JakartaServletWebApplication.buildApplication(getServletContext()).buildExchange(req,resp);
-        WebContext context=new WebContext(webExchange);
+        Map<String,Object> variables=new HashMap<>();
 
         String readerName=req.getParameter("readerName");
         String readerAddress=req.getParameter("readerAddress");
@@ -60,30 +47,40 @@ public class BookReservationServlet extends HttpServlet {
         String bookTitle=req.getParameter("chosenBook");
         String ipAddress=req.getRemoteAddr();
 
-        context.setVariable("readerName",readerName);
-        context.setVariable("readerAddress",readerAddress);
-        context.setVariable("numCopies",numCopies);
-        context.setVariable("bookTitle",bookTitle);
-        context.setVariable("ip",ipAddress);
+        variables.put("readerName",readerName);
+        variables.put("readerAddress",readerAddress);
+        variables.put("numCopies",numCopies);
+        variables.put("bookTitle",bookTitle);
+        variables.put("ip",ipAddress);
 
         try{
             bookReservationService.placeReservation(bookTitle,readerName,readerAddress,numCopies);
+            webMetrics.reservationPlaced();
 
             BookReservation reservation = new BookReservation(bookTitle, readerName, readerAddress, (long) numCopies);
 
+            // Set again so session stores that only save or replicate on setAttribute see the change
             var session = req.getSession();
-            List<BookReservation> reservations = (List<BookReservation>) session.getAttribute("reservations");
-            if (reservations == null) {
-                reservations = new ArrayList<>();
-                session.setAttribute("reservations", reservations);
-            }
-            reservations.add(reservation);
+            ReservationHistory history = ReservationHistory.of(session);
+            history.add(reservation);
+            session.setAttribute(ReservationHistory.SESSION_ATTRIBUTE, history);
         }catch (IllegalArgumentException e){
+            webMetrics.reservationInvalid();
             resp.sendRedirect("/?error=Invalid arguments!");
             return;
+        }catch (ReservationQueueFullException e){
+            webMetrics.reservationRejected();
+            resp.setHeader("Retry-After","1");
+            resp.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),e.getMessage());
+            return;
+        }catch (ReservationTimeoutException e){
+            webMetrics.reservationRejected();
+            resp.setHeader("Retry-After","1");
+            resp.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),e.getMessage());
+            return;
         }
 
-        springTemplateEngine.process("reservationConfirmation",context,resp.getWriter());
+        templateRenderer.render(TemplateRenderer.RESERVATION_CONFIRMATION,variables,req,resp);
 
 
     }
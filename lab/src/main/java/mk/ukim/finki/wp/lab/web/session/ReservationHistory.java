@@ -0,0 +1,115 @@
+package mk.ukim.finki.wp.lab.web.session;
+
+import jakarta.servlet.http.HttpSession;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fixed-size ring of a session's latest reservations. Writers claim a slot with one atomic
+// increment, so concurrent requests in the same session never block each other, and the
+// serialized form is just the live entries' fields, so the session stays the same size.
+public class ReservationHistory implements Externalizable {
+    public static final String SESSION_ATTRIBUTE = "reservations";
+    public static final int DEFAULT_CAPACITY = 10;
+
+    private static final long serialVersionUID = 1L;
+
+    private AtomicReferenceArray<BookReservation> slots;
+    private AtomicLong written;
+
+    public ReservationHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ReservationHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.written = new AtomicLong();
+    }
+
+    public static ReservationHistory of(HttpSession session) {
+        Object history = session.getAttribute(SESSION_ATTRIBUTE);
+        if (history instanceof ReservationHistory existing) {
+            return existing;
+        }
+        ReservationHistory created = new ReservationHistory();
+        session.setAttribute(SESSION_ATTRIBUTE, created);
+        return created;
+    }
+
+    public void add(BookReservation reservation) {
+        long sequence = written.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), reservation);
+    }
+
+    // Up to limit reservations, newest first
+    public List<BookReservation> latest(int limit) {
+        long end = written.get();
+        int count = (int) Math.min(Math.min(limit, slots.length()), end);
+        List<BookReservation> latest = new ArrayList<>(count);
+        for (long sequence = end - 1; sequence >= end - count; sequence--) {
+            BookReservation reservation = slots.get((int) (sequence % slots.length()));
+            if (reservation != null) {
+                latest.add(reservation);
+            }
+        }
+        return latest;
+    }
+
+    public int size() {
+        return (int) Math.min(written.get(), slots.length());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        List<BookReservation> entries = latest(slots.length());
+        out.writeShort(slots.length());
+        out.writeShort(entries.size());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            BookReservation reservation = entries.get(i);
+            writeString(out, reservation.getBookTitle());
+            writeString(out, reservation.getReaderName());
+            writeString(out, reservation.getReaderAddress());
+            out.writeLong(reservation.getNumberOfCopies() == null ? Long.MIN_VALUE : reservation.getNumberOfCopies());
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int capacity = in.readUnsignedShort();
+        int count = in.readUnsignedShort();
+        slots = new AtomicReferenceArray<>(capacity);
+        written = new AtomicLong();
+        for (int i = 0; i < count; i++) {
+            String bookTitle = readString(in);
+            String readerName = readString(in);
+            String readerAddress = readString(in);
+            long copies = in.readLong();
+            add(new BookReservation(bookTitle, readerName, readerAddress, copies == Long.MIN_VALUE ? null : copies));
+        }
+    }
+
+    private static void writeString(ObjectOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,30 @@
+-- Schema for the jdbc repositories (h2 profile); safe to run on every start
+CREATE TABLE IF NOT EXISTS author (
+    id        BIGINT PRIMARY KEY,
+    name      VARCHAR(255),
+    surname   VARCHAR(255),
+    country   VARCHAR(255),
+    biography VARCHAR(4000)
+);
+
+CREATE TABLE IF NOT EXISTS book (
+    id             BIGINT PRIMARY KEY,
+    title          VARCHAR(1000),
+    genre          VARCHAR(255),
+    average_rating DOUBLE PRECISION NOT NULL,
+    author_id      BIGINT REFERENCES author (id),
+    version        BIGINT NOT NULL DEFAULT 0
+);
+
+-- findByTitle on every reservation, rating range for searches, per-author pages in id order
+CREATE INDEX IF NOT EXISTS book_title ON book (title);
+CREATE INDEX IF NOT EXISTS book_rating ON book (average_rating);
+CREATE INDEX IF NOT EXISTS book_author ON book (author_id, id);
+
+CREATE TABLE IF NOT EXISTS book_reservation (
+    id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_title       VARCHAR(1000),
+    reader_name      VARCHAR(255),
+    reader_address   VARCHAR(1000),
+    number_of_copies BIGINT
+);
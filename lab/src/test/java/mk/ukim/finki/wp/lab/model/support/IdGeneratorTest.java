@@ -0,0 +1,91 @@
+package mk.ukim.finki.wp.lab.model.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    @Test
+    void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        IdGenerator generator = new IdGenerator();
+        int threads = 8;
+        int perThread = 200_000;
+        long[][] issued = new long[threads][perThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] ids = issued[t];
+            boolean batched = t % 2 == 0;
+            workers[t] = new Thread(() -> {
+                LongSupplier blocks = generator.blocks(64);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = batched ? blocks.getAsLong() : generator.nextId();
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long[] all = new long[threads * perThread];
+        for (int t = 0; t < threads; t++) {
+            for (int i = 1; i < perThread; i++) {
+                assertTrue(issued[t][i] > issued[t][i - 1], "ids must increase within a thread");
+            }
+            System.arraycopy(issued[t], 0, all, t * perThread, perThread);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+        assertTrue(all[0] > 0);
+    }
+
+    @Test
+    void staysMonotonicWhenTheSequenceRunsOutOrTheClockStepsBack() {
+        AtomicLong now = new AtomicLong(IdGenerator.EPOCH_MILLIS + 1_000);
+        IdGenerator generator = new IdGenerator(now::get);
+
+        long first = generator.allocate((1 << IdGenerator.SEQUENCE_BITS) + 10);
+        long afterOverflow = generator.nextId();
+        assertEquals(first + (1 << IdGenerator.SEQUENCE_BITS) + 10, afterOverflow);
+
+        now.addAndGet(-500);
+        assertEquals(afterOverflow + 1, generator.nextId());
+
+        now.addAndGet(10_000);
+        assertEquals((now.get() - IdGenerator.EPOCH_MILLIS) / 1000 << IdGenerator.SEQUENCE_BITS, generator.nextId());
+    }
+
+    @Test
+    void idsFitInADoubleForACentury() {
+        long century = 100L * 366 * 24 * 3600 * 1000;
+        IdGenerator generator = new IdGenerator(() -> IdGenerator.EPOCH_MILLIS + century);
+        long id = generator.nextId();
+        assertTrue(id < 1L << 53);
+        assertEquals(id, (long) (double) id);
+    }
+
+    @Test
+    void advancePastKeepsNewIdsAboveRestoredOnes() {
+        IdGenerator generator = new IdGenerator();
+        long restored = generator.nextId() + 1_000_000_000L;
+        generator.advancePast(restored);
+        generator.advancePast(restored - 5);
+        assertEquals(restored + 1, generator.nextId());
+    }
+}
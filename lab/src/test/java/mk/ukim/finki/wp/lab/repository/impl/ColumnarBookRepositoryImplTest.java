@@ -0,0 +1,70 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarBookRepositoryImplTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void matchesListBackendThroughWritesAndCompaction(boolean offHeap) {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        Author orwell = DataHolder.authors.get(0);
+        Author huxley = DataHolder.authors.get(1);
+        ColumnarBookRepositoryImpl columnar = new ColumnarBookRepositoryImpl(dataHolder, offHeap);
+        InMemoryBookRepositoryImpl list = new InMemoryBookRepositoryImpl();
+
+        // Descending ids so the id order has to be rebuilt rather than taken from insertion order
+        List<Book> extra = new ArrayList<>();
+        for (int i = 3000; i > 0; i--) {
+            extra.add(new Book("Žal " + i, i % 2 == 0 ? "Drama" : "Horror", (i % 50) / 10.0, 1_000_000L + i,
+                    i % 2 == 0 ? orwell : huxley, 0L));
+        }
+        columnar.saveAll(extra);
+        list.saveAll(extra);
+        // Enough deletes to trigger compaction
+        for (int i = 1; i <= 3000; i++) {
+            if (i % 3 != 0) {
+                columnar.deleteById(1_000_000L + i);
+                list.deleteById(1_000_000L + i);
+            }
+        }
+
+        assertEquals(list.count(), columnar.count());
+        assertEquals(sorted(list.searchBooks("al 2", 3.0)), sorted(columnar.searchBooks("al 2", 3.0)));
+        assertEquals(list.searchBooks("Wind", 0.0), columnar.searchBooks("Wind", 0.0));
+        assertEquals(list.findPage(1_000_100L, 25), columnar.findPage(1_000_100L, 25));
+        assertEquals(list.findPageByAuthor(orwell.getId(), null, 40), columnar.findPageByAuthor(orwell.getId(), null, 40));
+        assertEquals(list.findByTitle("Žal 42"), columnar.findByTitle("Žal 42"));
+        assertEquals(list.stream().sorted(Comparator.comparing(Book::getId)).toList(), columnar.stream().toList());
+
+        Book book = columnar.findByTitle("Žal 42").orElseThrow();
+        Book renamed = columnar.update(book.withTitle("Renamed").withAuthor(huxley));
+        assertEquals(1, renamed.getVersion());
+        assertEquals(renamed, columnar.findById(book.getId()).orElseThrow());
+        assertTrue(columnar.findByTitle("Žal 42").isEmpty());
+        assertEquals(renamed, columnar.findByTitle("Renamed").orElseThrow());
+        assertThrows(BookVersionConflictException.class, () -> columnar.update(book));
+
+        columnar.findPageByAuthor(orwell.getId(), null, 10_000).forEach(b -> columnar.deleteById(b.getId()));
+        assertTrue(columnar.findAuthors().contains(huxley));
+        assertTrue(!columnar.findAuthors().contains(orwell));
+    }
+
+    private static List<Book> sorted(List<Book> books) {
+        return books.stream().sorted(Comparator.comparing(Book::getId)).toList();
+    }
+}
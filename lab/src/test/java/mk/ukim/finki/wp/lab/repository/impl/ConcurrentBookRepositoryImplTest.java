@@ -0,0 +1,112 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentBookRepositoryImplTest {
+    private ConcurrentBookRepositoryImpl bookRepository;
+    private Author orwell;
+    private Author huxley;
+
+    @BeforeEach
+    void setUp() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        orwell = DataHolder.authors.get(0);
+        huxley = DataHolder.authors.get(1);
+        bookRepository = new ConcurrentBookRepositoryImpl(dataHolder);
+    }
+
+    @Test
+    void authorPagesFollowSavesUpdatesAndDeletes() {
+        List<Book> orwellBooks = bookRepository.findPageByAuthor(orwell.getId(), null, 100);
+        assertEquals(4, orwellBooks.size());
+        assertTrue(orwellBooks.stream().allMatch(b -> b.getAuthor() == orwell));
+
+        List<Book> firstTwo = bookRepository.findPageByAuthor(orwell.getId(), null, 2);
+        List<Book> rest = bookRepository.findPageByAuthor(orwell.getId(), firstTwo.get(1).getId(), 100);
+        assertEquals(orwellBooks.subList(2, 4), rest);
+
+        Book moved = orwellBooks.get(0);
+        bookRepository.update(moved.withAuthor(huxley));
+        assertEquals(3, bookRepository.findPageByAuthor(orwell.getId(), null, 100).size());
+        assertEquals(4, bookRepository.findPageByAuthor(huxley.getId(), null, 100).size());
+
+        bookRepository.findPageByAuthor(orwell.getId(), null, 100).forEach(b -> bookRepository.deleteById(b.getId()));
+        assertEquals(List.of(), bookRepository.findPageByAuthor(orwell.getId(), null, 100));
+        assertEquals(2, bookRepository.findAuthors().size());
+        assertTrue(bookRepository.findAuthors().contains(huxley));
+    }
+
+    @Test
+    void racingSavesAndDeletesLeaveTheIndexesInAgreement() throws Exception {
+        Book template = bookRepository.findAll().get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                Book book = template.withId(1_000_000L + round).withTitle("Race " + round).withVersion(0);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> saver = executor.submit(() -> {
+                    start.await();
+                    bookRepository.save(book);
+                    return null;
+                });
+                Future<?> deleter = executor.submit(() -> {
+                    start.await();
+                    bookRepository.deleteById(book.getId());
+                    return null;
+                });
+                start.countDown();
+                saver.get();
+                deleter.get();
+
+                boolean stored = bookRepository.findById(book.getId()).isPresent();
+                assertEquals(stored, bookRepository.findByTitle(book.getTitle()).isPresent());
+                assertEquals(stored, bookRepository.stream().anyMatch(b -> b.getId().equals(book.getId())));
+                assertEquals(stored, bookRepository.findPageByAuthor(book.getAuthor().getId(), null, 1000).contains(book));
+                bookRepository.deleteById(book.getId());
+                assertFalse(bookRepository.findByTitle(book.getTitle()).isPresent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void catalogSnapshotsAlwaysShowTheMovingBook() throws Exception {
+        // The writer adds the book under a lower id before deleting the old one, so at every
+        // instant one or two of them exist; an id-ordered scan racing it could see neither
+        Book template = bookRepository.findAll().get(0).withTitle("Mover").withVersion(0);
+        long top = 2_000_000L;
+        bookRepository.save(template.withId(top));
+        Thread writer = new Thread(() -> {
+            for (long id = top; id > top - 5_000; id--) {
+                bookRepository.save(template.withId(id - 1));
+                bookRepository.deleteById(id);
+            }
+        });
+        writer.start();
+        try {
+            while (writer.isAlive()) {
+                long movers = bookRepository.stream().filter(b -> b.getTitle().equals("Mover")).count();
+                assertTrue(movers == 1 || movers == 2, "saw " + movers + " moving books");
+            }
+        } finally {
+            writer.join();
+        }
+        assertEquals(List.of(top - 5_000), bookRepository.stream().filter(b -> b.getTitle().equals("Mover")).map(Book::getId).toList());
+    }
+}
@@ -0,0 +1,120 @@
+package mk.ukim.finki.wp.lab.repository.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.exceptions.BookVersionConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcBookRepositoryImplTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DataHolder dataHolder;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+                .addScript("db/h2-schema.sql").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+        dataHolder = new DataHolder();
+        dataHolder.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void matchesListBackendAndSeedsOnlyAnEmptyDatabase() {
+        JdbcAuthorRepositoryImpl authors = new JdbcAuthorRepositoryImpl(dataHolder, jdbcTemplate, 100);
+        JdbcBookRepositoryImpl jdbc = new JdbcBookRepositoryImpl(dataHolder, jdbcTemplate, transactionTemplate, authors, 100, 64);
+        // The list backend works on DataHolder.books itself, which already holds the seed catalog
+        InMemoryBookRepositoryImpl list = new InMemoryBookRepositoryImpl();
+        Author orwell = DataHolder.authors.get(0);
+        Author huxley = DataHolder.authors.get(1);
+
+        List<Book> extra = new ArrayList<>();
+        for (int i = 1; i <= 2500; i++) {
+            extra.add(new Book("Title_" + i + (i % 7 == 0 ? " 100%" : ""), "Drama", (i % 50) / 10.0, 1_000_000L + i,
+                    i % 2 == 0 ? orwell : huxley, 0L));
+        }
+        jdbc.saveAll(extra);
+        list.saveAll(extra);
+        for (int i = 1; i <= 2500; i += 3) {
+            jdbc.deleteById(1_000_000L + i);
+            list.deleteById(1_000_000L + i);
+        }
+
+        assertEquals(list.count(), jdbc.count());
+        assertEquals(sorted(list.searchBooks("e_2", 3.0)), jdbc.searchBooks("e_2", 3.0));
+        // LIKE wildcards in the search text are matched literally
+        assertEquals(sorted(list.searchBooks("0%", 0.0)), jdbc.searchBooks("0%", 0.0));
+        assertEquals(sorted(list.searchBooks("_", 4.5)), jdbc.searchBooks("_", 4.5));
+        assertEquals(list.findPage(1_000_100L, 25), jdbc.findPage(1_000_100L, 25));
+        assertEquals(list.findPageByAuthor(orwell.getId(), null, 40), jdbc.findPageByAuthor(orwell.getId(), null, 40));
+        assertEquals(list.findByTitle("Title_44"), jdbc.findByTitle("Title_44"));
+        assertEquals(sorted(list.stream().toList()), jdbc.stream().toList());
+        assertSame(jdbc.findById(1_000_002L).orElseThrow().getAuthor(), jdbc.findById(1_000_006L).orElseThrow().getAuthor());
+
+        Book book = jdbc.findByTitle("Title_44").orElseThrow();
+        Book renamed = jdbc.update(book.withTitle("Renamed").withAuthor(huxley));
+        assertEquals(1, renamed.getVersion());
+        assertEquals(renamed, jdbc.findById(book.getId()).orElseThrow());
+        assertTrue(jdbc.findByTitle("Title_44").isEmpty());
+        assertThrows(BookVersionConflictException.class, () -> jdbc.update(book));
+        assertThrows(IllegalArgumentException.class, () -> jdbc.update(book.withId(42L)));
+
+        jdbc.findPageByAuthor(orwell.getId(), null, 10_000).forEach(b -> jdbc.deleteById(b.getId()));
+        assertFalse(jdbc.findAuthors().contains(orwell));
+        assertTrue(jdbc.findAuthors().contains(huxley));
+
+        // A second start against the same database keeps what is there
+        long count = jdbc.count();
+        JdbcBookRepositoryImpl restarted = new JdbcBookRepositoryImpl(dataHolder, jdbcTemplate, transactionTemplate,
+                new JdbcAuthorRepositoryImpl(dataHolder, jdbcTemplate, 100), 100, 64);
+        assertEquals(count, restarted.count());
+        assertEquals(renamed, restarted.findById(book.getId()).orElseThrow());
+    }
+
+    @Test
+    void reservationsAreWrittenInBatches() {
+        JdbcBookReservationRepositoryImpl reservations = new JdbcBookReservationRepositoryImpl(jdbcTemplate, transactionTemplate);
+        List<BookReservation> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new BookReservation("Dune", "Reader " + i, "Address", (long) i % 3 + 1));
+        }
+        reservations.saveAll(batch);
+        reservations.save(new BookReservation("Dune", "Last", "Address", null));
+
+        assertEquals(501, reservations.count());
+        List<BookReservation> stored = reservations.findAll();
+        assertEquals(batch, stored.subList(0, 500));
+        assertEquals(null, stored.get(500).getNumberOfCopies());
+    }
+
+    private static List<Book> sorted(List<Book> books) {
+        return books.stream().sorted(Comparator.comparing(Book::getId)).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookSearchIndexTest {
+
+    @Test
+    void emptiedPostingListsAndRatingBucketsAreDropped() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 500; id++) {
+            index.index(new Book("Title number " + id, "Genre", (id % 50) / 10.0, id, null, 0L));
+        }
+        for (long id = 1; id <= 500; id++) {
+            index.index(new Book("Renamed " + id, "Genre", 4.9, id, null, 1L));
+        }
+        List<Long> found = new ArrayList<>();
+        index.candidates("Renamed 42", 4.0, found::add);
+        assertEquals(List.of(42L), found.stream().filter(id -> id == 42L).toList());
+        assertEquals(1, index.ratingBuckets());
+
+        for (long id = 1; id <= 500; id++) {
+            index.remove(id);
+        }
+        assertEquals(0, index.postingLists());
+        assertEquals(0, index.ratingBuckets());
+        List<Long> remaining = new ArrayList<>();
+        index.candidates("", 0.0, remaining::add);
+        assertEquals(List.of(), remaining);
+    }
+
+    @Test
+    void textShorterThanATrigramFallsBackToTheRatingRange() {
+        BookSearchIndex index = new BookSearchIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.index(new Book((id % 2 == 0 ? "Dune " : "Emma ") + id, "Genre", (id % 50) / 10.0, id, null, 0L));
+        }
+        // "Du" filters nothing: every book rated 4.0 or more is a candidate, whatever its title
+        List<Long> found = new ArrayList<>();
+        index.candidates("Du", 4.0, found::add);
+        List<Long> expected = LongStream.rangeClosed(1, 100).filter(id -> (id % 50) / 10.0 >= 4.0).boxed().toList();
+        assertEquals(expected, found.stream().sorted().toList());
+
+        List<Long> dune = new ArrayList<>();
+        index.candidates("Dun", 4.0, dune::add);
+        assertEquals(expected.stream().filter(id -> id % 2 == 0).toList(), dune.stream().sorted().toList());
+    }
+}
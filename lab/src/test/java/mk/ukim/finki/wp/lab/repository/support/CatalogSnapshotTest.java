@@ -0,0 +1,125 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.repository.impl.ColumnarBookRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void forgetSnapshot() {
+        DataHolder.snapshot = null;
+    }
+
+    @Test
+    void restoredCatalogMatchesTheOneWrittenAndAcceptsWrites() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        Author orwell = DataHolder.authors.get(0);
+        ColumnarBookRepositoryImpl original = catalogWithEdits(dataHolder, orwell);
+        Author unused = new Author("Unused", "Author", "Nowhere", null);
+        List<Author> authors = new ArrayList<>(DataHolder.authors);
+        authors.add(unused);
+
+        CatalogSnapshot.write(directory, 1, authors, original.copyInIdOrder());
+        DataHolder.snapshot = CatalogSnapshot.openLatest(directory).orElseThrow();
+        assertEquals(1, DataHolder.snapshot.sequence());
+        assertEquals(authors, DataHolder.snapshot.authors());
+        ColumnarBookRepositoryImpl restored = new ColumnarBookRepositoryImpl(dataHolder, false);
+
+        assertEquals(original.count(), restored.count());
+        assertEquals(original.findAll(), restored.findAll());
+        // Scans return rows in storage order, which the snapshot turns into id order
+        assertEquals(sorted(original.searchBooks("Žal 1", 2.0)), restored.searchBooks("Žal 1", 2.0));
+        assertEquals(original.findPage(1_000_500L, 30), restored.findPage(1_000_500L, 30));
+        assertEquals(original.findPageByAuthor(orwell.getId(), null, 50), restored.findPageByAuthor(orwell.getId(), null, 50));
+        assertEquals(original.findByTitle("Renamed"), restored.findByTitle("Renamed"));
+        assertEquals(original.findAuthors(), restored.findAuthors());
+
+        // The title arena is a read-only mapping until the first write moves it
+        Book added = new Book("Added after restore", "Drama", 4.0, orwell);
+        restored.save(added);
+        restored.deleteById(1_000_003L);
+        assertEquals(added, restored.findByTitle("Added after restore").orElseThrow());
+        assertTrue(restored.findById(1_000_003L).isEmpty());
+        assertEquals(original.count(), restored.count());
+    }
+
+    @Test
+    void damagedOrUnfinishedSnapshotsAreSkipped() throws IOException {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        ColumnarBookRepositoryImpl repository = catalogWithEdits(dataHolder, DataHolder.authors.get(1));
+        Path first = CatalogSnapshot.write(directory, 1, DataHolder.authors, repository.copyInIdOrder());
+        repository.deleteById(1_000_006L);
+        Path second = CatalogSnapshot.write(directory, 2, DataHolder.authors, repository.copyInIdOrder());
+        Files.write(directory.resolve(second.getFileName() + ".tmp"), new byte[]{1, 2, 3});
+        Files.copy(second, directory.resolve("catalog-0000000000000000003.snap"));
+        try (FileChannel channel = FileChannel.open(directory.resolve("catalog-0000000000000000003.snap"), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() / 2);
+        }
+        try (FileChannel channel = FileChannel.open(second, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long middle = channel.size() / 2;
+            channel.read(b, middle);
+            b.put(0, (byte) (b.get(0) ^ 0x40)).rewind();
+            channel.write(b, middle);
+        }
+
+        CatalogSnapshot latest = CatalogSnapshot.openLatest(directory).orElseThrow();
+        assertEquals(first, latest.file());
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(directory.resolve(second.getFileName() + ".corrupt")));
+        assertTrue(Files.exists(directory.resolve("catalog-0000000000000000003.snap.corrupt")));
+        assertEquals(3, CatalogSnapshot.latestSequence(directory));
+
+        Path fourth = CatalogSnapshot.write(directory, 4, DataHolder.authors, repository.copyInIdOrder());
+        CatalogSnapshot.prune(directory, 2);
+        assertFalse(Files.exists(directory.resolve(second.getFileName() + ".tmp")));
+        assertTrue(Files.exists(first));
+        CatalogSnapshot.prune(directory, 1);
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(fourth));
+        assertTrue(Files.exists(directory.resolve(second.getFileName() + ".corrupt")));
+    }
+
+    private static List<Book> sorted(List<Book> books) {
+        return books.stream().sorted(Comparator.comparing(Book::getId)).toList();
+    }
+
+    private static ColumnarBookRepositoryImpl catalogWithEdits(DataHolder dataHolder, Author author) {
+        ColumnarBookRepositoryImpl repository = new ColumnarBookRepositoryImpl(dataHolder, false);
+        List<Book> extra = new ArrayList<>();
+        for (int i = 1000; i > 0; i--) {
+            extra.add(new Book("Žal " + i, i % 3 == 0 ? null : "Genre " + i % 5, (i % 50) / 10.0, 1_000_000L + i,
+                    i % 2 == 0 ? author : null, 0L));
+        }
+        repository.saveAll(extra);
+        for (int i = 1; i <= 1000; i += 4) {
+            repository.deleteById(1_000_000L + i);
+        }
+        Book book = repository.findById(1_000_002L).orElseThrow();
+        repository.update(book.withTitle("Renamed"));
+        return repository;
+    }
+}
@@ -0,0 +1,77 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongPostingListTest {
+
+    @Test
+    void matchesASortedSetUnderRandomAddsAndRemoves() {
+        Random random = new Random(7);
+        LongPostingList list = new LongPostingList();
+        TreeSet<Long> expected = new TreeSet<>();
+        long next = 1_000;
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5) {
+                // Mostly increasing ids, as the id generator hands them out
+                next += 1 + random.nextInt(3);
+                list.add(next);
+                expected.add(next);
+            } else if (action < 7) {
+                long id = 1_000 + random.nextInt((int) (next - 999));
+                list.add(id);
+                expected.add(id);
+            } else {
+                long id = 1_000 + random.nextInt((int) (next - 999));
+                list.remove(id);
+                expected.remove(id);
+            }
+            if (step % 500 == 0) {
+                assertSame(expected, list.snapshot());
+            }
+        }
+        assertSame(expected, list.snapshot());
+        for (Long id : new ArrayList<>(expected)) {
+            list.remove(id);
+        }
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void snapshotsAreUnchangedByLaterWrites() {
+        LongPostingList list = new LongPostingList();
+        for (long id = 1; id <= 10; id++) {
+            list.add(id);
+        }
+        LongPostingList.Snapshot before = list.snapshot();
+        list.add(11);
+        list.add(0);
+        for (long id = 1; id <= 5; id++) {
+            list.remove(id);
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids(before));
+        assertEquals(List.of(0L, 6L, 7L, 8L, 9L, 10L, 11L), ids(list.snapshot()));
+    }
+
+    private static void assertSame(TreeSet<Long> expected, LongPostingList.Snapshot snapshot) {
+        assertEquals(List.copyOf(expected), ids(snapshot));
+        assertEquals(expected.size(), snapshot.size());
+        for (long id = expected.first() - 1; id <= expected.last() + 1; id += 7) {
+            assertEquals(expected.contains(id), snapshot.contains(id));
+        }
+    }
+
+    private static List<Long> ids(LongPostingList.Snapshot snapshot) {
+        List<Long> ids = new ArrayList<>();
+        snapshot.forEach(ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,30 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LruCacheTest {
+
+    @Test
+    void loadsThatOverlapAWriteAreNotCached() {
+        LruCache<Long, String> cache = new LruCache<>(100);
+
+        String loaded = cache.computeIfAbsent(1L, key -> {
+            cache.put(key, "new");
+            return "old";
+        });
+        assertEquals("old", loaded);
+        assertEquals("new", cache.get(1L));
+
+        cache.computeIfAbsent(2L, key -> {
+            cache.remove(key);
+            return "old";
+        });
+        assertNull(cache.get(2L));
+
+        assertEquals("fresh", cache.computeIfAbsent(3L, key -> "fresh"));
+        assertEquals("fresh", cache.get(3L));
+    }
+}
@@ -0,0 +1,60 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderedCatalogTest {
+
+    @Test
+    void matchesASortedMapThroughInsertsReplacementsDeletesAndBatches() {
+        Random random = new Random(7);
+        TreeMap<Long, Book> expected = new TreeMap<>();
+        OrderedCatalog catalog = OrderedCatalog.EMPTY;
+        for (int round = 0; round < 20_000; round++) {
+            long id = random.nextInt(3_000);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                Book book = book(id, round);
+                expected.put(id, book);
+                catalog = catalog.with(book);
+            } else if (operation < 8) {
+                expected.remove(id);
+                catalog = catalog.without(id);
+            } else {
+                List<Book> batch = new ArrayList<>();
+                for (int i = 0; i < 300; i++) {
+                    Book book = book(random.nextInt(3_000), round);
+                    batch.add(book);
+                    expected.put(book.getId(), book);
+                }
+                catalog = catalog.withAll(batch);
+            }
+        }
+
+        assertEquals(expected.size(), catalog.size());
+        assertEquals(new ArrayList<>(expected.values()), catalog.toList());
+        assertEquals(new ArrayList<>(expected.values()), catalog.stream().toList());
+        Long after = expected.keySet().stream().skip(100).findFirst().orElseThrow();
+        assertEquals(expected.tailMap(after, false).values().stream().limit(50).toList(), catalog.page(after, 50));
+    }
+
+    @Test
+    void olderInstancesAreUnchangedByLaterWrites() {
+        OrderedCatalog before = OrderedCatalog.EMPTY.withAll(List.of(book(1, 0), book(2, 0), book(3, 0)));
+        OrderedCatalog after = before.without(2).with(book(1, 1)).with(book(4, 0));
+
+        assertEquals(List.of(book(1, 0), book(2, 0), book(3, 0)), before.toList());
+        assertEquals(List.of(book(1, 1), book(3, 0), book(4, 0)), after.toList());
+    }
+
+    private static Book book(long id, int round) {
+        return new Book("Book " + id + " @" + round, "Genre", 3.0, id, null, 0L);
+    }
+}
@@ -0,0 +1,64 @@
+package mk.ukim.finki.wp.lab.repository.support;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReservationJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAfterATornOneAreNotRevivedByLaterAppends() throws IOException {
+        try (ReservationJournal journal = new ReservationJournal(directory, 64 * 1024, 1)) {
+            journal.replay(r -> { });
+            journal.append(reservation("first"));
+            journal.append(reservation("torn"));
+            journal.append(reservation("after"));
+        }
+        tearSecondRecord(directory.resolve("reservations-00000000.log"));
+
+        try (ReservationJournal journal = new ReservationJournal(directory, 64 * 1024, 1)) {
+            assertEquals(List.of("first"), replayTitles(journal));
+            // Same length as the torn record, so it ends exactly where "after" begins
+            journal.append(reservation("next"));
+        }
+
+        try (ReservationJournal journal = new ReservationJournal(directory, 64 * 1024, 1)) {
+            assertEquals(List.of("first", "next"), replayTitles(journal));
+        }
+    }
+
+    private static BookReservation reservation(String title) {
+        return new BookReservation(title, "Reader", "Street 1", 1L);
+    }
+
+    private static List<String> replayTitles(ReservationJournal journal) {
+        List<String> titles = new ArrayList<>();
+        journal.replay(r -> titles.add(r.getBookTitle()));
+        return titles;
+    }
+
+    // Flips a payload byte of the second record so its checksum no longer matches
+    private static void tearSecondRecord(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            int second = 8 + header.getInt(0);
+            ByteBuffer payload = ByteBuffer.allocate(1);
+            channel.read(payload, second + 8);
+            payload.put(0, (byte) (payload.get(0) ^ 0x5a)).rewind();
+            channel.write(payload, second + 8);
+        }
+    }
+}
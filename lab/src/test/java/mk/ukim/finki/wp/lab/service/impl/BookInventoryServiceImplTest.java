@@ -0,0 +1,67 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookInventoryServiceImplTest {
+
+    @Test
+    void parallelReserversNeverOversell() throws Exception {
+        int books = 4;
+        long stock = 10_000;
+        int threads = 32;
+        BookInventoryServiceImpl inventory = new BookInventoryServiceImpl(stock);
+        AtomicLongArray reserved = new AtomicLongArray(books);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    int book = random.nextInt(books);
+                    int copies = 1 + random.nextInt(5);
+                    if (inventory.reserve((long) book, copies)) {
+                        reserved.addAndGet(book, copies);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int book = 0; book < books; book++) {
+            long available = inventory.available((long) book);
+            assertTrue(available >= 0);
+            assertTrue(available < 5, "demand far exceeds stock, so every title should be drained");
+            assertEquals(stock, reserved.get(book) + available);
+        }
+    }
+
+    @Test
+    void releasedCopiesCanBeReservedAgain() {
+        BookInventoryServiceImpl inventory = new BookInventoryServiceImpl(3);
+        assertTrue(inventory.reserve(1L, 3));
+        assertFalse(inventory.reserve(1L, 1));
+        inventory.release(1L, 2);
+        assertTrue(inventory.reserve(1L, 2));
+        assertEquals(0, inventory.available(1L));
+    }
+}
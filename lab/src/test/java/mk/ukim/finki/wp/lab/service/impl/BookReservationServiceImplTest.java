@@ -0,0 +1,108 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationTimeoutException;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.ingest.ReservationIngestionPipeline;
+import mk.ukim.finki.wp.lab.service.support.ReservationLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookReservationServiceImplTest {
+    private static final long STOCK = 10;
+
+    private final CompletableFuture<Void> release = new CompletableFuture<>();
+    private final List<BookReservation> stored = new CopyOnWriteArrayList<>();
+    private ReservationIngestionPipeline pipeline;
+    private BookInventoryServiceImpl inventory;
+    private ReservationLedger ledger;
+    private BookReservationServiceImpl service;
+    private Book dune;
+
+    @BeforeEach
+    void setUp() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        ConcurrentBookRepositoryImpl bookRepository = new ConcurrentBookRepositoryImpl(dataHolder);
+        dune = bookRepository.findByTitle("Dune").orElseThrow();
+        // Saves by "Blocker" hold the consumer until release completes
+        BookReservationRepository reservations = new BookReservationRepository() {
+            @Override
+            public BookReservation save(BookReservation reservation) {
+                if (reservation.getReaderName().equals("Blocker")) {
+                    release.join();
+                }
+                stored.add(reservation);
+                return reservation;
+            }
+
+            @Override
+            public List<BookReservation> findAll() {
+                return stored;
+            }
+
+            @Override
+            public long count() {
+                return stored.size();
+            }
+        };
+        pipeline = new ReservationIngestionPipeline(reservations, List.of(), 100, 1, 0);
+        pipeline.start();
+        inventory = new BookInventoryServiceImpl(STOCK);
+        ledger = new ReservationLedger(reservations, bookRepository, inventory);
+        service = new BookReservationServiceImpl(pipeline, bookRepository, inventory, ledger, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.complete(null);
+        pipeline.stop();
+    }
+
+    @Test
+    void aReservationStillQueuedAtTheTimeoutIsWithdrawnAndNeverStored() throws Exception {
+        CompletableFuture<BookReservation> blocker = service.placeReservationAsync("Dune", "Blocker", "Street 1", 1);
+        while (pipeline.queued() > 0) {
+            Thread.onSpinWait();
+        }
+
+        ReservationTimeoutException timeout = assertThrows(ReservationTimeoutException.class,
+                () -> service.placeReservation("Dune", "Reader", "Street 2", 3));
+        assertTrue(timeout.getMessage().contains("was not made"));
+        assertEquals(0, pipeline.queued());
+        assertEquals(STOCK - 1, inventory.available(dune.getId()));
+
+        release.complete(null);
+        blocker.get(5, TimeUnit.SECONDS);
+        pipeline.stop();
+        assertEquals(List.of("Blocker"), stored.stream().map(BookReservation::getReaderName).toList());
+        assertEquals(0, ledger.outstanding("Dune", "Reader"));
+        assertEquals(STOCK - 1, inventory.available(dune.getId()));
+    }
+
+    @Test
+    void aReservationAlreadyBeingStoredAtTheTimeoutMayStillLand() throws Exception {
+        ReservationTimeoutException timeout = assertThrows(ReservationTimeoutException.class,
+                () -> service.placeReservation("Dune", "Blocker", "Street 1", 2));
+        assertTrue(timeout.getMessage().contains("may yet go through"));
+
+        release.complete(null);
+        pipeline.stop();
+        assertEquals(1, stored.size());
+        assertEquals(2, ledger.outstanding("Dune", "Blocker"));
+        assertEquals(STOCK - 2, inventory.available(dune.getId()));
+    }
+}
@@ -0,0 +1,94 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.repository.impl.InMemoryAuthorRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.support.CatalogFacets;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import mk.ukim.finki.wp.lab.service.transfer.CatalogFormat;
+import mk.ukim.finki.wp.lab.service.transfer.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogTransferServiceImplTest {
+    private ConcurrentBookRepositoryImpl bookRepository;
+    private CatalogTransferServiceImpl catalogTransferService;
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        author = DataHolder.authors.get(0);
+        bookRepository = new ConcurrentBookRepositoryImpl(dataHolder);
+        catalogTransferService = new CatalogTransferServiceImpl(bookRepository, new InMemoryAuthorRepositoryImpl(dataHolder),
+                new CatalogVersion(), new CatalogFacets(bookRepository));
+    }
+
+    @Test
+    void importsValidRowsAcrossManyChunksAndRejectsTheRest() throws Exception {
+        StringBuilder csv = new StringBuilder("id,title,genre,averageRating,authorId\n");
+        for (int i = 1; i <= 50_000; i++) {
+            csv.append(100_000 + i).append(",\"Title, part ").append(i).append("\",Genre,4.0,").append(author.getId()).append('\n');
+        }
+        csv.append("1,Unknown author,Genre,4.0,-1\n");
+        csv.append("not,a,valid,line\n");
+
+        ImportResult result = importCsv(csv.toString());
+
+        assertEquals(50_000, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(50_010, bookRepository.count());
+        assertEquals("Title, part 777", bookRepository.findById(100_777L).orElseThrow().getTitle());
+        assertEquals(1, bookRepository.searchBooks("part 49999", 0.0).size());
+    }
+
+    @Test
+    void exportedCatalogImportsBackUnchanged() throws Exception {
+        bookRepository.save(new Book("Quoted \"title\", with comma", "Genre", 3.5, 5_000L, author, 0L));
+        for (CatalogFormat format : CatalogFormat.values()) {
+            ByteArrayOutputStream exported = new ByteArrayOutputStream();
+            catalogTransferService.exportBooks(Channels.newChannel(exported), format);
+            List<Book> before = bookRepository.stream().toList();
+
+            ImportResult result = catalogTransferService.importBooks(
+                    Channels.newChannel(new ByteArrayInputStream(exported.toByteArray())), format);
+
+            assertEquals(before.size(), result.imported());
+            assertEquals(0, result.rejected());
+            assertEquals(before.size(), bookRepository.count());
+            assertTrue(bookRepository.stream().allMatch(b -> before.stream().anyMatch(o ->
+                    o.getId().equals(b.getId()) && o.getTitle().equals(b.getTitle()) && o.getAuthor() == b.getAuthor())));
+        }
+    }
+
+    @Test
+    void failedImportReturnsOnlyAfterDispatchedChunksAreStored() {
+        StringBuilder csv = new StringBuilder("id,title,genre,averageRating,authorId\n");
+        for (int i = 1; i <= 20_000; i++) {
+            csv.append(100_000 + i).append(",Title ").append(i).append(",Genre,4.0,").append(author.getId()).append('\n');
+        }
+        csv.append("1,").append("x".repeat(2 << 20)).append('\n');
+
+        assertThrows(IllegalArgumentException.class, () -> importCsv(csv.toString()));
+
+        assertEquals(20_010, bookRepository.count());
+    }
+
+    private ImportResult importCsv(String csv) throws Exception {
+        return catalogTransferService.importBooks(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), CatalogFormat.CSV);
+    }
+}
@@ -0,0 +1,100 @@
+package mk.ukim.finki.wp.lab.service.impl;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.model.ReservationTicket;
+import mk.ukim.finki.wp.lab.model.ReservationTicket.Status;
+import mk.ukim.finki.wp.lab.service.BookReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationTicketServiceImplTest {
+    private final List<CompletableFuture<BookReservation>> queued = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private ReservationTicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        BookReservationService reservations = new BookReservationService() {
+            @Override
+            public BookReservation placeReservation(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<BookReservation> placeReservationAsync(String bookTitle, String readerName, String readerAddress, int numberOfCopies) {
+                if (numberOfCopies <= 0) {
+                    throw new IllegalArgumentException();
+                }
+                CompletableFuture<BookReservation> future = new CompletableFuture<>();
+                queued.add(future);
+                return future;
+            }
+
+            @Override
+            public void returnCopies(String bookTitle, String readerName, int numberOfCopies) {
+            }
+        };
+        ticketService = new ReservationTicketServiceImpl(reservations, 60_000, 2, now::get);
+    }
+
+    @Test
+    void ticketsMoveFromPendingToTheirOutcome() {
+        ReservationTicket confirmed = ticketService.submit("Dune", "Ana", "Skopje", 2);
+        ReservationTicket rejected = ticketService.submit("Dune", "Ana", "Skopje", 1);
+        assertEquals(Status.PENDING, confirmed.getStatus());
+        assertEquals(confirmed.getId(), UUID.fromString(confirmed.getId()).toString());
+        assertFalse(ticketService.completion(confirmed.getId()).isDone());
+
+        queued.get(0).complete(new BookReservation("Dune", "Ana", "Skopje", 2L));
+        queued.get(1).completeExceptionally(new IllegalStateException("Journal unavailable"));
+
+        assertEquals(Status.CONFIRMED, ticketService.findById(confirmed.getId()).getStatus());
+        ReservationTicket failed = ticketService.completion(rejected.getId()).join();
+        assertEquals(Status.REJECTED, failed.getStatus());
+        assertEquals("Journal unavailable", failed.getError());
+        assertThrows(IllegalArgumentException.class, () -> ticketService.submit("Dune", "Ana", "Skopje", 0));
+    }
+
+    @Test
+    void finishedTicketsBeyondTheLimitAreForgotten() {
+        List<ReservationTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tickets.add(ticketService.submit("Dune", "Reader " + i, "Address", 1));
+        }
+        queued.forEach(f -> f.complete(null));
+
+        assertThrows(IllegalArgumentException.class, () -> ticketService.findById(tickets.get(0).getId()));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.findById(tickets.get(1).getId()));
+        assertTrue(ticketService.findById(tickets.get(3).getId()).isDone());
+    }
+
+    @Test
+    void expiredTicketsAreForgottenOnLookupWithoutFurtherActivity() {
+        ReservationTicket first = ticketService.submit("Dune", "Ana", "Skopje", 1);
+        queued.get(0).complete(null);
+        now.addAndGet(30_000);
+        ReservationTicket second = ticketService.submit("Dune", "Ana", "Skopje", 1);
+        queued.get(1).complete(null);
+
+        now.addAndGet(29_999);
+        assertTrue(ticketService.findById(first.getId()).isDone());
+        now.addAndGet(1);
+        assertThrows(IllegalArgumentException.class, () -> ticketService.findById(first.getId()));
+        assertThrows(IllegalArgumentException.class, () -> ticketService.completion(first.getId()));
+        assertTrue(ticketService.findById(second.getId()).isDone());
+
+        now.addAndGet(30_000);
+        assertThrows(IllegalArgumentException.class, () -> ticketService.findById(second.getId()));
+    }
+}
@@ -0,0 +1,94 @@
+package mk.ukim.finki.wp.lab.service.ingest;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationIngestionPipelineTest {
+
+    @Test
+    void anErrorFailsItsBatchButNotTheConsumer() throws Exception {
+        List<BookReservation> stored = new CopyOnWriteArrayList<>();
+        ReservationIngestionPipeline pipeline = new ReservationIngestionPipeline(new BookReservationRepository() {
+            @Override
+            public BookReservation save(BookReservation reservation) {
+                if (reservation.getBookTitle().equals("Poison")) {
+                    throw new StackOverflowError();
+                }
+                stored.add(reservation);
+                return reservation;
+            }
+
+            @Override
+            public List<BookReservation> findAll() {
+                return stored;
+            }
+
+            @Override
+            public long count() {
+                return stored.size();
+            }
+        }, List.of(), 100, 1, 0);
+        pipeline.start();
+
+        CompletableFuture<BookReservation> poisoned = pipeline.submit(reservation("Poison"));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> poisoned.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+
+        pipeline.submit(reservation("Dune")).get(5, TimeUnit.SECONDS);
+        assertEquals(1, stored.size());
+        pipeline.stop();
+    }
+
+    @Test
+    void stoppingDrainsWhatIsQueuedAndRejectsNewReservations() throws Exception {
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        List<BookReservation> stored = new CopyOnWriteArrayList<>();
+        ReservationIngestionPipeline pipeline = new ReservationIngestionPipeline(new BookReservationRepository() {
+            @Override
+            public BookReservation save(BookReservation reservation) {
+                release.join();
+                stored.add(reservation);
+                return reservation;
+            }
+
+            @Override
+            public List<BookReservation> findAll() {
+                return stored;
+            }
+
+            @Override
+            public long count() {
+                return stored.size();
+            }
+        }, List.of(), 100, 1, 0);
+        pipeline.start();
+        CompletableFuture<BookReservation> first = pipeline.submit(reservation("First"));
+        while (pipeline.queued() > 0) {
+            Thread.onSpinWait();
+        }
+        CompletableFuture<BookReservation> second = pipeline.submit(reservation("Second"));
+
+        // The consumer is stuck in save, so stop() gives up waiting; it still finishes the queue afterwards
+        pipeline.stop();
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(reservation("Third")));
+        release.complete(null);
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, stored.size());
+    }
+
+    private static BookReservation reservation(String title) {
+        return new BookReservation(title, "Reader", "Street 1", 1L);
+    }
+}
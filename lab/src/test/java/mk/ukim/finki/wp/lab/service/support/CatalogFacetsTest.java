@@ -0,0 +1,106 @@
+package mk.ukim.finki.wp.lab.service.support;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Author;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookFacets;
+import mk.ukim.finki.wp.lab.model.BookSearchResult;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookInventoryServiceImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogFacetsTest {
+    private ConcurrentBookRepositoryImpl bookRepository;
+    private CatalogFacets catalogFacets;
+    private BookServiceImpl bookService;
+    private Author orwell;
+    private Author huxley;
+
+    @BeforeEach
+    void setUp() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        orwell = DataHolder.authors.get(0);
+        huxley = DataHolder.authors.get(1);
+        bookRepository = new ConcurrentBookRepositoryImpl(dataHolder);
+        catalogFacets = new CatalogFacets(bookRepository);
+        bookService = new BookServiceImpl(bookRepository, new CatalogVersion(), catalogFacets, new BookInventoryServiceImpl(10));
+    }
+
+    @Test
+    void countsFollowSavesEditsAndDeletes() {
+        BookFacets seeded = bookService.facets();
+        assertEquals(10, seeded.getTotal());
+        assertEquals(4, seeded.getAuthors().get(orwell.getId()));
+        assertEquals(1, seeded.getGenres().get("Horror"));
+
+        Book dune = bookService.searchBooks("Dune", 0.0).get(0);
+        bookService.update(dune.withGenre("Horror").withAverageRating(2.2).withAuthor(huxley));
+        bookService.save(new Book("Carrie", "Horror", 3.9, orwell));
+        bookService.deleteById(bookService.searchBooks("Gone Girl", 0.0).get(0).getId());
+
+        BookFacets facets = bookService.facets();
+        assertEquals(10, facets.getTotal());
+        assertEquals(3, facets.getGenres().get("Horror"));
+        assertFalse(facets.getGenres().containsKey("Science Fiction"));
+        assertEquals(4, facets.getAuthors().get(orwell.getId()));
+        assertEquals(1, facets.getRatingBands()[BookFacets.ratingBand(2.2)]);
+        assertEquals("Horror", facets.getGenres().keySet().iterator().next());
+
+        catalogFacets.rebuild();
+        assertEquals(facets, catalogFacets.snapshot());
+    }
+
+    @Test
+    void concurrentEditsOfOneBookLeaveConsistentCounts() throws Exception {
+        Book book = bookService.searchBooks("Dune", 0.0).get(0);
+        Thread[] writers = IntStream.range(0, 4).mapToObj(t -> new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                bookService.save(book.withGenre("Genre " + (i % 7)).withAverageRating((i % 50) / 10.0));
+            }
+        })).toArray(Thread[]::new);
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        BookFacets incremental = catalogFacets.snapshot();
+        catalogFacets.rebuild();
+        assertEquals(catalogFacets.snapshot(), incremental);
+        assertEquals(10, incremental.getTotal());
+    }
+
+    @Test
+    void searchResultsCarryTheirOwnFacets() {
+        BookFacets facets = bookService.searchBooksWithFacets("The", 4.5, null, 1).getFacets();
+        assertEquals(3, facets.getTotal());
+        assertEquals(1, facets.getAuthors().get(huxley.getId()));
+    }
+
+    @Test
+    void searchResultsArePagedByIdWhileFacetsCountEveryMatch() {
+        List<Long> ids = new ArrayList<>();
+        Long after = null;
+        do {
+            BookSearchResult result = bookService.searchBooksWithFacets("The", 4.5, after, 2);
+            assertEquals(3, result.getFacets().getTotal());
+            assertTrue(result.getBooks().size() <= 2);
+            result.getBooks().forEach(b -> ids.add(b.getId()));
+            after = result.getPage().getNextCursor();
+        } while (after != null);
+        assertEquals(3, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids);
+    }
+}
@@ -0,0 +1,61 @@
+package mk.ukim.finki.wp.lab.service.support;
+
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import mk.ukim.finki.wp.lab.repository.BookReservationRepository;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookInventoryServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationLedgerTest {
+
+    @Test
+    void replayedReservationsReduceStockAndBoundReturns() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        Book book = DataHolder.books.get(0);
+        String title = book.getTitle();
+        List<BookReservation> stored = List.of(
+                new BookReservation(title, "Ana", "Skopje", 3L),
+                new BookReservation(title, "Ana", null, -1L),
+                new BookReservation(title, "Marko", "Bitola", 4L),
+                new BookReservation("No such book", "Ana", "Skopje", 2L));
+        BookInventoryServiceImpl inventory = new BookInventoryServiceImpl(10);
+        ReservationLedger ledger = new ReservationLedger(repository(stored), new ConcurrentBookRepositoryImpl(dataHolder), inventory);
+
+        ledger.rebuild();
+
+        assertEquals(10 - 3 + 1 - 4, inventory.available(book.getId()));
+        assertEquals(2, ledger.outstanding(title, "Ana"));
+        assertFalse(ledger.tryReturn(title, "Ana", 3));
+        assertFalse(ledger.tryReturn(title, "Stranger", 1));
+        assertTrue(ledger.tryReturn(title, "Ana", 2));
+        assertEquals(0, ledger.outstanding(title, "Ana"));
+    }
+
+    private static BookReservationRepository repository(List<BookReservation> stored) {
+        return new BookReservationRepository() {
+            @Override
+            public BookReservation save(BookReservation reservation) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<BookReservation> findAll() {
+                return stored;
+            }
+
+            @Override
+            public long count() {
+                return stored.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CountMinSketchTest {
+
+    @Test
+    void keysWithTheSameStringHashCodeCountSeparately() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(CountMinSketch.hash("Aa"), CountMinSketch.hash("BB"));
+
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        sketch.add(CountMinSketch.hash("Aa"), 100);
+        assertEquals(100, sketch.estimate(CountMinSketch.hash("Aa")));
+        assertEquals(0, sketch.estimate(CountMinSketch.hash("BB")));
+    }
+
+    @Test
+    void hashesDependOnEveryCharAndTheLength() {
+        Set<Long> hashes = new HashSet<>();
+        String[] keys = {"", "a", "a\0", "a\0\0\0", "a\0\0\0\0", "Dune", "Dunf", "Dune ", "eDun", "The Road", "The Roae"};
+        for (String key : keys) {
+            hashes.add(CountMinSketch.hash(key));
+        }
+        assertEquals(keys.length, hashes.size());
+    }
+}
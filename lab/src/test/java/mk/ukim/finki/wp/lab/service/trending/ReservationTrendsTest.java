@@ -0,0 +1,59 @@
+package mk.ukim.finki.wp.lab.service.trending;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationTrendsTest {
+
+    @Test
+    void findsHeavyHittersAmongManyTitles() {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        ReservationTrends trends = new ReservationTrends(4, 1024, 20, clock::get);
+        Random random = new Random(7);
+        List<BookReservation> batch = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            // Five popular titles among 50k rarely reserved ones
+            String title = random.nextInt(10) == 0 ? "Hot " + random.nextInt(5) : "Book " + random.nextInt(50_000);
+            batch.add(new BookReservation(title, "Reader", "Address", 1L));
+            if (batch.size() == 256) {
+                trends.onStored(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        trends.onStored(batch);
+
+        List<TrendingBook> top = trends.top(TrendWindow.MINUTE, 5);
+        assertEquals(5, top.size());
+        assertTrue(top.stream().allMatch(b -> b.bookTitle().startsWith("Hot ")));
+        // About 2000 each; the sketch may only overcount, by at most total / width per row
+        assertTrue(top.stream().allMatch(b -> b.copies() > 1_500 && b.copies() < 2_000 + 100_000 / 1024 * 2));
+    }
+
+    @Test
+    void countsLeaveEachWindowAfterItsSpan() {
+        AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+        ReservationTrends trends = new ReservationTrends(4, 256, 10, clock::get);
+        trends.onStored(List.of(new BookReservation("Dune", "A", "B", 3L), new BookReservation("Dune", "A", "B", 2L),
+                new BookReservation("Jane Eyre", "A", "B", 1L)));
+        assertEquals(List.of(new TrendingBook("Dune", 5), new TrendingBook("Jane Eyre", 1)), trends.top(TrendWindow.MINUTE, 10));
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(65));
+        trends.onIdle();
+        assertEquals(List.of(), trends.top(TrendWindow.MINUTE, 10));
+        assertEquals(5, trends.top(TrendWindow.HOUR, 1).get(0).copies());
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(1));
+        trends.onIdle();
+        assertEquals(List.of(), trends.top(TrendWindow.HOUR, 10));
+        assertEquals(List.of(new TrendingBook("Dune", 5)), trends.top(TrendWindow.DAY, 1));
+    }
+}
@@ -0,0 +1,28 @@
+package mk.ukim.finki.wp.lab.web.api;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookApiControllerTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gzip, deflate, br | true",
+            "GZIP;q=0.5 | true",
+            "gzip;q=0 | false",
+            "gzip; q=0.000, deflate | false",
+            "deflate, *;q=0.1 | true",
+            "*;q=0.1, gzip;q=0 | false",
+            "deflate | false",
+            "identity, x-gzipped | false",
+    })
+    void gzipIsChosenOnlyWithANonZeroQValue(String acceptEncoding, boolean expected) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        assertEquals(expected, BookApiController.acceptsGzip(request));
+    }
+}
@@ -0,0 +1,42 @@
+package mk.ukim.finki.wp.lab.web.cache;
+
+import mk.ukim.finki.wp.lab.web.cache.RenderedPageCache.CachedPage;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RenderedPageCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedPageBeyondMaxEntries() {
+        RenderedPageCache cache = new RenderedPageCache(2);
+        cache.put("/books", page(1));
+        cache.put("/books&size=5", page(1));
+        assertNotNull(cache.get("/books", 1));
+
+        cache.put("/books&size=6", page(1));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("/books", 1));
+        assertNull(cache.get("/books&size=5", 1));
+        assertNotNull(cache.get("/books&size=6", 1));
+    }
+
+    @Test
+    void pagesFromAnotherVersionAreMissesAndNeverReplaceNewerOnes() {
+        RenderedPageCache cache = new RenderedPageCache(2);
+        cache.put("/books", page(2));
+        assertNull(cache.get("/books", 3));
+
+        // A slow render from before the write must not overwrite the page rendered after it
+        cache.put("/books", page(1));
+        assertNotNull(cache.get("/books", 2));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    private static CachedPage page(long version) {
+        return new CachedPage(version, "text/html", new byte[]{1});
+    }
+}
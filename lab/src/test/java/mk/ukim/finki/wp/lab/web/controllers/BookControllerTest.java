@@ -0,0 +1,31 @@
+package mk.ukim.finki.wp.lab.web.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // The pager is shared with the root servlet, so its links must stay on whichever path served the page
+    @Test
+    void pagerLinksStayOnTheBooksPage() throws Exception {
+        mockMvc.perform(get("/books").param("size", "2").param("after", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("href=\"?size=2\"")))
+                .andExpect(content().string(containsString("href=\"?after=")))
+                .andExpect(content().string(not(containsString("href=\"/?"))));
+    }
+}
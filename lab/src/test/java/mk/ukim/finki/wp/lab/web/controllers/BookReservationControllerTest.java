@@ -0,0 +1,49 @@
+package mk.ukim.finki.wp.lab.web.controllers;
+
+import mk.ukim.finki.wp.lab.web.session.ReservationHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Replicated and persistent session stores only notice attributes passed to setAttribute
+    @Test
+    void everyReservationSetsTheHistoryAttributeAgain() throws Exception {
+        List<String> set = new ArrayList<>();
+        MockHttpSession session = new MockHttpSession() {
+            @Override
+            public void setAttribute(String name, Object value) {
+                set.add(name);
+                super.setAttribute(name, value);
+            }
+        };
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/bookReservation").session(session)
+                            .param("chosenBook", "Dune")
+                            .param("readerName", "Ana")
+                            .param("readerAddress", "Street 1")
+                            .param("numCopies", "1"))
+                    .andExpect(status().isOk());
+        }
+
+        // Once when the history is created, then once after each reservation
+        assertEquals(3, set.stream().filter(ReservationHistory.SESSION_ATTRIBUTE::equals).count());
+        assertEquals(2, ReservationHistory.of(session).size());
+    }
+}
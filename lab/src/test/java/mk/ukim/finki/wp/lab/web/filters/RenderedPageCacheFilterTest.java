@@ -0,0 +1,126 @@
+package mk.ukim.finki.wp.lab.web.filters;
+
+import jakarta.servlet.FilterChain;
+import mk.ukim.finki.wp.lab.bootstrap.DataHolder;
+import mk.ukim.finki.wp.lab.model.Book;
+import mk.ukim.finki.wp.lab.repository.impl.ConcurrentBookRepositoryImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookInventoryServiceImpl;
+import mk.ukim.finki.wp.lab.service.impl.BookServiceImpl;
+import mk.ukim.finki.wp.lab.service.support.CatalogFacets;
+import mk.ukim.finki.wp.lab.service.support.CatalogVersion;
+import mk.ukim.finki.wp.lab.web.cache.RenderedPageCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderedPageCacheFilterTest {
+    private final AtomicInteger renders = new AtomicInteger();
+    private BookServiceImpl bookService;
+    private RenderedPageCache renderedPageCache;
+    private RenderedPageCacheFilter filter;
+    private FilterChain listing;
+
+    @BeforeEach
+    void setUp() {
+        DataHolder dataHolder = new DataHolder();
+        dataHolder.init();
+        ConcurrentBookRepositoryImpl repository = new ConcurrentBookRepositoryImpl(dataHolder);
+        CatalogVersion catalogVersion = new CatalogVersion();
+        bookService = new BookServiceImpl(repository, catalogVersion, new CatalogFacets(repository), new BookInventoryServiceImpl(10));
+        renderedPageCache = new RenderedPageCache(16);
+        filter = new RenderedPageCacheFilter(renderedPageCache, catalogVersion);
+        // Stands in for the listing page: one line per book in the catalog
+        listing = (request, response) -> {
+            renders.incrementAndGet();
+            response.setContentType("text/html;charset=UTF-8");
+            for (Book book : bookService.listAll()) {
+                response.getWriter().write(book.getTitle() + "\n");
+            }
+        };
+    }
+
+    @Test
+    void anIfNoneMatchForTheCurrentVersionIsNotModified() throws Exception {
+        MockHttpServletResponse first = get(Map.of(), null);
+        assertEquals(200, first.getStatus());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse revalidated = get(Map.of(), etag);
+        assertEquals(304, revalidated.getStatus());
+        assertEquals(0, revalidated.getContentAsByteArray().length);
+        assertEquals(etag, revalidated.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, renders.get());
+        assertEquals(1, renderedPageCache.notModified());
+    }
+
+    @Test
+    void savesUpdatesAndDeletesInvalidateCachedPages() throws Exception {
+        Book added = new Book("Solaris", "Science Fiction", 4.2, DataHolder.authors.get(0));
+        List<Consumer<BookServiceImpl>> writes = List.of(
+                service -> service.save(added),
+                service -> service.update(service.findById(added.getId()).withTitle("Solaris (Revised)")),
+                service -> service.deleteById(added.getId()));
+        List<String> expectTitle = List.of("Solaris", "Solaris (Revised)", "");
+
+        String etag = get(Map.of(), null).getHeader(HttpHeaders.ETAG);
+        get(Map.of(), null);
+        assertEquals(1, renders.get());
+        for (int i = 0; i < writes.size(); i++) {
+            writes.get(i).accept(bookService);
+
+            MockHttpServletResponse afterWrite = get(Map.of(), etag);
+            assertEquals(200, afterWrite.getStatus());
+            assertNotEquals(etag, afterWrite.getHeader(HttpHeaders.ETAG));
+            assertEquals(i + 2, renders.get());
+            String body = afterWrite.getContentAsString();
+            if (expectTitle.get(i).isEmpty()) {
+                assertFalse(body.contains("Solaris"));
+            } else {
+                assertTrue(body.contains(expectTitle.get(i) + "\n"));
+            }
+            etag = afterWrite.getHeader(HttpHeaders.ETAG);
+        }
+    }
+
+    @Test
+    void equivalentParametersShareACacheEntry() throws Exception {
+        MockHttpServletResponse first = get(Map.of("size", "05", "rating", "4", "title", " dune "), null);
+        MockHttpServletResponse second = get(Map.of("rating", "4.0", "size", "5", "title", "dune", "utm", "x"), null);
+        assertEquals(1, renders.get());
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+
+        get(Map.of("size", "6"), null);
+        assertEquals(2, renders.get());
+
+        // Unparseable numbers are left to the handler and never cached
+        get(Map.of("size", "five"), null);
+        get(Map.of("size", "five"), null);
+        assertEquals(4, renders.get());
+        assertEquals(2, renderedPageCache.size());
+    }
+
+    private MockHttpServletResponse get(Map<String, String> parameters, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.setServletPath("/books");
+        request.setParameters(parameters);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, listing);
+        return response;
+    }
+}
@@ -0,0 +1,113 @@
+package mk.ukim.finki.wp.lab.web.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.ukim.finki.wp.lab.model.exceptions.ReservationQueueFullException;
+import mk.ukim.finki.wp.lab.service.BookReservationService;
+import mk.ukim.finki.wp.lab.web.controllers.BookReservationController;
+import mk.ukim.finki.wp.lab.web.filters.RateLimitFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureObservability
+class WebMetricsTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebMetrics webMetrics;
+
+    // Lets each outcome be produced on demand; a full queue can't be arranged reliably otherwise
+    @MockitoBean
+    private BookReservationService bookReservationService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(bookReservationService.placeReservation(eq("Dune"), eq("Invalid"), anyString(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Not enough copies available"));
+        when(bookReservationService.placeReservation(eq("Dune"), eq("Rejected"), anyString(), anyInt()))
+                .thenThrow(new ReservationQueueFullException());
+        // The @WebFilter is only registered in a real servlet container, so it is added here: three
+        // reservations pass, the fourth from the same address is limited
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(true, 100, 0.001, 3, 0.001, 3, webMetrics);
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(rateLimitFilter).build();
+    }
+
+    @Test
+    void reservationOutcomesRateLimitingAndEndpointTimesAreRecordedAndExported() throws Exception {
+        double placed = reservations("success");
+        double invalid = reservations("invalid");
+        double rejected = reservations("rejected");
+        long timed = endpointCalls();
+
+        mockMvc.perform(reserve("Reader")).andExpect(status().isOk());
+        mockMvc.perform(reserve("Invalid")).andExpect(status().is3xxRedirection());
+        mockMvc.perform(reserve("Rejected")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(reserve("Reader")).andExpect(status().isTooManyRequests());
+
+        assertEquals(placed + 1, reservations("success"));
+        assertEquals(invalid + 1, reservations("invalid"));
+        assertEquals(rejected + 1, reservations("rejected"));
+        assertEquals(1, meterRegistry.get("lab.rate-limit.rejected").tag("route", "reservations").counter().count());
+        // The limited request never reaches the controller
+        assertEquals(timed + 3, endpointCalls());
+        assertEquals(1, meterRegistry.get(WebMetrics.ENDPOINT_TIMER)
+                .tag("class", BookReservationController.class.getName())
+                .tag("exception", ReservationQueueFullException.class.getSimpleName())
+                .timer().count());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("lab_reservations_total{outcome=\"success\"}")))
+                .andExpect(content().string(containsString("lab_rate_limit_rejected_total{route=\"reservations\"} 1.0")))
+                .andExpect(content().string(containsString("lab_endpoint_seconds_count{class=\"" + BookReservationController.class.getName())))
+                .andExpect(content().string(containsString("lab_page_cache_total{result=\"hit\"}")));
+    }
+
+    private RequestBuilder reserve(String readerName) {
+        return post("/bookReservation")
+                .param("chosenBook", "Dune")
+                .param("readerName", readerName)
+                .param("readerAddress", "Street 1")
+                .param("numCopies", "1");
+    }
+
+    private double reservations(String outcome) {
+        return meterRegistry.get("lab.reservations").tag("outcome", outcome).counter().count();
+    }
+
+    // Summed over the method and exception tags
+    private long endpointCalls() {
+        return meterRegistry.find(WebMetrics.ENDPOINT_TIMER)
+                .tag("class", BookReservationController.class.getName())
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
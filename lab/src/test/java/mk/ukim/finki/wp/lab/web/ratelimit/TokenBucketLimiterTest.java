@@ -0,0 +1,66 @@
+package mk.ukim.finki.wp.lab.web.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        AtomicLong clock = new AtomicLong(42);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 5, 100, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void staysBoundedUnderManyClients() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1_000, clock::get);
+
+        for (int i = 0; i < 5_000; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        assertTrue(limiter.trackedClients() <= 1_000);
+
+        // Once the tracked buckets have refilled they are evicted to make room for new clients
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.tryAcquire("newcomer"));
+        assertEquals(0, limiter.tryAcquire("another"));
+        assertTrue(limiter.trackedClients() <= 2);
+    }
+
+    @Test
+    void sweepsAFullMapAtMostOncePerInterval() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1_000, 1, 10, clock::get);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        limiter.tryAcquire("first-newcomer");
+        assertEquals(10, limiter.trackedClients());
+
+        // Every bucket has refilled, but the last sweep was too recent to walk the map again
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        limiter.tryAcquire("second-newcomer");
+        assertEquals(10, limiter.trackedClients());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, limiter.tryAcquire("third-newcomer"));
+        assertEquals(1, limiter.trackedClients());
+    }
+}
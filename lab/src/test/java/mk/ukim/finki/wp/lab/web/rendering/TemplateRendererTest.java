@@ -0,0 +1,97 @@
+package mk.ukim.finki.wp.lab.web.rendering;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.ukim.finki.wp.lab.web.metrics.WebMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateRendererTest {
+    private static final Map<String, Object> RESERVATION = Map.of(
+            "readerName", "<script>alert('x')</script>",
+            "readerAddress", "Tom & Jerry \"Street\" 1",
+            "bookTitle", "Dune",
+            "numCopies", 3);
+
+    private final MockServletContext servletContext = new MockServletContext();
+    private SpringTemplateEngine templateEngine;
+    private TemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver templates = new ClassLoaderTemplateResolver();
+        templates.setPrefix("templates/");
+        templates.setSuffix(".html");
+        templates.setTemplateMode(TemplateMode.HTML);
+        templates.setCheckExistence(true);
+        templates.setOrder(1);
+        // Anything that isn't a template file is taken as the template itself
+        StringTemplateResolver inline = new StringTemplateResolver();
+        inline.setTemplateMode(TemplateMode.HTML);
+        inline.setOrder(2);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.addTemplateResolver(templates);
+        templateEngine.addTemplateResolver(inline);
+        renderer = new TemplateRenderer(templateEngine, servletContext, new WebMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void staticConfirmationMatchesTheThymeleafRendering() throws Exception {
+        StringWriter thymeleaf = new StringWriter();
+        WebContext context = new WebContext(JakartaServletWebApplication.buildApplication(servletContext)
+                .buildExchange(new MockHttpServletRequest(servletContext), new MockHttpServletResponse()));
+        RESERVATION.forEach(context::setVariable);
+        templateEngine.process(TemplateRenderer.RESERVATION_CONFIRMATION, context, thymeleaf);
+
+        // The first render builds the static template, the second one is served from it
+        assertEquals(thymeleaf.toString(), render(TemplateRenderer.RESERVATION_CONFIRMATION, RESERVATION));
+        assertEquals(thymeleaf.toString(), render(TemplateRenderer.RESERVATION_CONFIRMATION, RESERVATION));
+    }
+
+    @Test
+    void userValuesAreHtmlEscaped() throws Exception {
+        render(TemplateRenderer.RESERVATION_CONFIRMATION, Map.of("readerName", "Ana", "readerAddress", "Street",
+                "bookTitle", "Dune", "numCopies", 1));
+        String page = render(TemplateRenderer.RESERVATION_CONFIRMATION, RESERVATION);
+        assertFalse(page.contains("<script>"));
+        assertTrue(page.contains("&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt;"));
+        assertTrue(page.contains("Tom &amp; Jerry &quot;Street&quot; 1"));
+    }
+
+    @Test
+    void aBufferIsResetAndReturnedWhenRenderingFails() throws Exception {
+        render("<p th:text=\"${greeting}\"></p>", Map.of("greeting", "warm-up"));
+        assertEquals(1, renderer.pooledBuffers());
+
+        MockHttpServletResponse failed = new MockHttpServletResponse();
+        assertThrows(RuntimeException.class, () -> renderer.render("<p>partial</p><p th:text=\"${missing.name}\"></p>",
+                Map.of(), new MockHttpServletRequest(servletContext), failed));
+        assertEquals("", failed.getContentAsString());
+        assertEquals(1, renderer.pooledBuffers());
+
+        assertEquals("<p>Hello</p>", render("<p th:text=\"${greeting}\"></p>", Map.of("greeting", "Hello")));
+        assertEquals(1, renderer.pooledBuffers());
+    }
+
+    private String render(String template, Map<String, ?> variables) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        renderer.render(template, variables, new MockHttpServletRequest(servletContext), response);
+        return response.getContentAsString();
+    }
+}
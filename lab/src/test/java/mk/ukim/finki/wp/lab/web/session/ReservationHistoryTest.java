@@ -0,0 +1,59 @@
+package mk.ukim.finki.wp.lab.web.session;
+
+import mk.ukim.finki.wp.lab.model.BookReservation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReservationHistoryTest {
+
+    @Test
+    void latestReturnsNewestFirstAndForgetsOldest() {
+        ReservationHistory history = new ReservationHistory(4);
+        for (int i = 1; i <= 6; i++) {
+            history.add(reservation(i));
+        }
+        assertEquals(4, history.size());
+        assertEquals(List.of("Book 6", "Book 5", "Book 4"),
+                history.latest(3).stream().map(BookReservation::getBookTitle).toList());
+        assertEquals(4, history.latest(10).size());
+    }
+
+    @Test
+    void serializedSizeStaysConstantOnceFull() throws Exception {
+        ReservationHistory history = new ReservationHistory(5);
+        for (int i = 0; i < 5; i++) {
+            history.add(reservation(i));
+        }
+        int full = serialize(history).length;
+        for (int i = 5; i < 500; i++) {
+            history.add(reservation(i % 5));
+        }
+        byte[] bytes = serialize(history);
+        assertEquals(full, bytes.length);
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            ReservationHistory restored = (ReservationHistory) in.readObject();
+            assertEquals(history.latest(5), restored.latest(5));
+        }
+    }
+
+    private static BookReservation reservation(int i) {
+        return new BookReservation("Book " + i, "Reader", "Address", 1L);
+    }
+
+    private static byte[] serialize(ReservationHistory history) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(history);
+        }
+        return bytes.toByteArray();
+    }
+}